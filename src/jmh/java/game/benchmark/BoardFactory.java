@@ -0,0 +1,39 @@
+package game.benchmark;
+
+import game.model.Position;
+import game.model.WallIndex;
+
+import java.util.SplittableRandom;
+
+/**
+ * Creates boards with randomly placed walls for the benchmarks.
+ */
+final class BoardFactory {
+
+    private BoardFactory() {
+    }
+
+    /**
+     * Places a wall on every edge between neighbouring squares with the given probability.
+     * @param size Number of rows and columns of the board.
+     * @param density Probability of a wall on an edge.
+     * @param seed Seed of the random generator.
+     * @return Index of the walls.
+     */
+    static WallIndex randomWalls(int size, double density, long seed) {
+        var random = new SplittableRandom(seed);
+        var builder = WallIndex.builder(size);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (row + 1 < size && random.nextDouble() < density) {
+                    builder.add(new Position(row, col), new Position(row + 1, col));
+                }
+                if (col + 1 < size && random.nextDouble() < density) {
+                    builder.add(new Position(row, col), new Position(row, col + 1));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+}
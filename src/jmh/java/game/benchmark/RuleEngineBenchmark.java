@@ -0,0 +1,151 @@
+package game.benchmark;
+
+import game.model.Dot;
+import game.model.DotType;
+import game.model.GameModel;
+import game.model.PlayerDirection;
+import game.model.Position;
+import game.model.RuleEngine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the move generation of {@link GameModel} and {@link RuleEngine} on random boards.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RuleEngineBenchmark {
+
+    private static final int STATES = 1024;
+
+    @Param({"7", "64", "512"})
+    private int boardSize;
+
+    @Param({"0.0", "0.1", "0.3"})
+    private double wallDensity;
+
+    /**
+     * Whether the engine looks the moves up in a compiled move table, boards over its limit have none.
+     */
+    @Param({"false", "true"})
+    private boolean compiled;
+
+    private RuleEngine engine;
+
+    private GameModel model;
+
+    /**
+     * A valid move of the red dot in the start state of the model, its inverse takes it back.
+     */
+    private PlayerDirection direction;
+
+    private long[] states;
+
+    private Position[] positions;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        var walls = BoardFactory.randomWalls(boardSize, wallDensity, 42);
+        var random = new SplittableRandom(7);
+        engine = compiled ? RuleEngine.compiled(walls) : new RuleEngine(walls);
+        states = new long[STATES];
+        positions = new Position[STATES];
+        long start = -1;
+        for (int i = 0; i < STATES; i++) {
+            int red = random.nextInt(engine.getCellCount());
+            int blue = random.nextInt(engine.getCellCount());
+            states[i] = engine.state(red, blue);
+            positions[i] = engine.position(red);
+            if (start < 0 && !engine.isWon(states[i]) && engine.getValidMoves(states[i]) != 0) {
+                start = states[i];
+            }
+        }
+        if (start < 0) {
+            throw new IllegalStateException("No sampled state has a valid move");
+        }
+        // walls may box in any fixed square, so the model starts from a sampled state that can move
+        model = new GameModel(walls,
+                new Dot(DotType.RED, engine.position(engine.redCell(start))),
+                new Dot(DotType.BLUE, engine.position(engine.blueCell(start))));
+        direction = model.getValidMoves().iterator().next();
+    }
+
+    private int next() {
+        index = (index + 1) & (STATES - 1);
+        return index;
+    }
+
+    @Benchmark
+    public void modelIsValidMove(Blackhole blackhole) {
+        for (var direction : PlayerDirection.values()) {
+            blackhole.consume(model.isValidMove(direction));
+        }
+    }
+
+    @Benchmark
+    public Object modelGetValidMoves() {
+        return model.getValidMoves();
+    }
+
+    /**
+     * Moves there and back, so the model stays in the same state between invocations.
+     */
+    @Benchmark
+    public void modelMove() {
+        model.move(direction, direction.inverse());
+        model.move(direction.inverse(), direction);
+    }
+
+    @Benchmark
+    public void engineIsValidMove(Blackhole blackhole) {
+        long state = states[next()];
+        for (int direction = 0; direction < 4; direction++) {
+            blackhole.consume(engine.isValidMove(state, direction));
+        }
+    }
+
+    @Benchmark
+    public int engineGetValidMoves() {
+        return engine.getValidMoves(states[next()]);
+    }
+
+    @Benchmark
+    public long engineMove() {
+        long state = states[next()];
+        int moves = engine.getValidMoves(state);
+        return moves == 0 ? state : engine.move(state, Integer.numberOfTrailingZeros(moves));
+    }
+
+    @Benchmark
+    public Position positionMoveTo() {
+        return positions[next()].moveTo(PlayerDirection.RIGHT);
+    }
+
+    @Benchmark
+    public PlayerDirection directionOf() {
+        int i = next() & 3;
+        var direction = PlayerDirection.fromCode(i);
+        return PlayerDirection.of(direction.getRowChange(), direction.getColChange());
+    }
+
+}
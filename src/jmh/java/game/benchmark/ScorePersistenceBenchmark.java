@@ -0,0 +1,94 @@
+package game.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import game.Score;
+import game.leaderboard.ScoreLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of saving a score: reading every score of {@code scores.json}, prepending the new one and writing
+ * the whole list back, compared to appending it to a {@link ScoreLog}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScorePersistenceBenchmark {
+
+    @Param({"100", "10000"})
+    private int scoreCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private File directory;
+
+    private File save;
+
+    private File output;
+
+    private ScoreLog scoreLog;
+
+    /**
+     * Recreates the files before every iteration, as appending to the log makes them grow.
+     */
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("scores").toFile();
+        save = new File(directory, ScoreLog.SNAPSHOT_FILE_NAME);
+        output = new File(directory, "scores.out.json");
+        scoreLog = new ScoreLog(directory.toPath());
+        List<Score> scores = new ArrayList<>();
+        for (int i = 0; i < scoreCount; i++) {
+            scores.add(new Score("Player " + i % 50, 10 + i % 30, 10));
+        }
+        objectMapper.writeValue(save, scores);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        for (var file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * Writes to a separate file, so the number of stored scores stays the same between invocations.
+     */
+    @Benchmark
+    public void readAllWriteAll() throws IOException {
+        List<Score> scores = new ArrayList<>();
+        scores.add(new Score("Benchmark", 12, 10));
+        scores.addAll(objectMapper.readValue(save, new TypeReference<List<Score>>() {}));
+        objectMapper.writeValue(output, scores);
+    }
+
+    @Benchmark
+    public void appendToLog() throws IOException {
+        scoreLog.append(new Score("Benchmark", 12, 10));
+    }
+
+}
@@ -0,0 +1,163 @@
+package game.load;
+
+import game.model.GameModel;
+import game.model.Level;
+import game.model.PlayerDirection;
+import game.model.Position;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import org.tinylog.Logger;
+
+/**
+ * Simulated player on a connection of its own, playing games until the end of the run and checking every response
+ * of the server against the same moves made on a {@link GameModel}.
+ *
+ * <p>Scripted players play the given solution of the level. Random players make a random valid move, or take
+ * back the last one in one of {@value #UNDO_ONE_IN} turns, and give up after {@value #MAX_MOVES} moves.</p>
+ */
+class LoadClient implements Runnable {
+
+    private static final int UNDO_ONE_IN = 10;
+
+    private static final int MAX_MOVES = 100;
+
+    private final LoadGenerator generator;
+
+    private final Level level;
+
+    private final int[] script;
+
+    private final SplittableRandom random;
+
+    private BufferedReader reader;
+
+    private BufferedWriter writer;
+
+    /**
+     * @param generator Run the client takes part in.
+     * @param level Level played.
+     * @param script Moves played in every game, or {@code null} to play random moves.
+     * @param seed Seed of the random moves.
+     */
+    LoadClient(LoadGenerator generator, Level level, int[] script, long seed) {
+        this.generator = generator;
+        this.level = level;
+        this.script = script;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void run() {
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), generator.getPort())) {
+            socket.setTcpNoDelay(true);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            while (!generator.isOver()) {
+                playGame();
+            }
+            send(Operation.QUIT, "QUIT");
+        } catch (IOException e) {
+            generator.connectionFailed(e);
+        }
+    }
+
+    private void playGame() throws IOException {
+        var model = new GameModel(level);
+        var response = send(Operation.START, "START " + level.getId());
+        if (!check(response.startsWith("OK ") && response.endsWith(" " + positions(model)), "START", response)) {
+            return;
+        }
+        var session = response.split(" ")[1];
+        int turn = 0;
+        while (!generator.isOver() && !level.getEngine().isWon(model.getState())) {
+            if (script != null ? turn == script.length : turn == MAX_MOVES) {
+                break;
+            }
+            turn++;
+            response = send(Operation.MOVES, "MOVES " + session);
+            if (!check(response.equals(validMoves(model)), "MOVES " + session, response)) {
+                break;
+            }
+            if (script == null && model.getMoveCount() > 0 && random.nextInt(UNDO_ONE_IN) == 0) {
+                model.undo();
+                response = send(Operation.UNDO, "UNDO " + session);
+                if (!check(response.equals("OK " + positions(model)), "UNDO " + session, response)) {
+                    break;
+                }
+                continue;
+            }
+            if (script == null && model.getValidMoves().isEmpty()) {
+                break;
+            }
+            var direction = script != null ? PlayerDirection.fromCode(script[turn - 1]) : randomMove(model);
+            model.move(direction, direction.inverse());
+            response = send(Operation.MOVE, "MOVE " + session + " " + direction);
+            var expected = "OK " + positions(model) + (level.getEngine().isWon(model.getState()) ? " WON" : "");
+            if (!check(response.equals(expected), "MOVE " + session + " " + direction, response)) {
+                break;
+            }
+        }
+        response = send(Operation.FINISH, "FINISH " + session);
+        boolean won = level.getEngine().isWon(model.getState());
+        check(response.equals("OK " + model.getMoveCount() + (won ? " WON" : " NOT_WON")), "FINISH " + session,
+                response);
+        generator.gameFinished(won);
+    }
+
+    private PlayerDirection randomMove(GameModel model) {
+        var moves = model.getValidMoves().toArray(new PlayerDirection[0]);
+        return moves[random.nextInt(moves.length)];
+    }
+
+    private String send(Operation operation, String command) throws IOException {
+        long start = System.nanoTime();
+        writer.write(command);
+        writer.write('\n');
+        writer.flush();
+        var response = reader.readLine();
+        generator.record(operation, System.nanoTime() - start);
+        if (response == null) {
+            throw new IOException("Connection closed by the server");
+        }
+        return response;
+    }
+
+    private boolean check(boolean correct, String command, String response) {
+        if (!correct) {
+            generator.wrongResponse();
+            Logger.error("Wrong response to {}: {}", command, response);
+        }
+        return correct;
+    }
+
+    /**
+     * Expected response to MOVES: the valid directions in the order of their codes.
+     * @param model .
+     * @return Response line.
+     */
+    private static String validMoves(GameModel model) {
+        var response = new StringBuilder("OK");
+        for (var direction : PlayerDirection.values()) {
+            if (model.isValidMove(direction)) {
+                response.append(' ').append(direction);
+            }
+        }
+        return response.toString();
+    }
+
+    private static String positions(GameModel model) {
+        Position red = model.getDotPosition(0);
+        Position blue = model.getDotPosition(1);
+        return red.row() + " " + red.col() + " " + blue.row() + " " + blue.col();
+    }
+
+}
@@ -0,0 +1,211 @@
+package game.load;
+
+import game.model.Level;
+import game.model.LevelLoader;
+import game.server.GameServer;
+import game.server.SessionManager;
+import game.solver.BfsSolver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.tinylog.Logger;
+
+/**
+ * Load generator running thousands of simulated players against a game server on localhost, and reporting the
+ * throughput and the latency percentiles of every command of the protocol.
+ *
+ * <p>Each client sends its next command only after the response to the previous one, so when the server falls
+ * behind the load drops with it and the latencies of the commands that would have been sent in the meantime are
+ * not recorded. The percentiles are those of a closed system and understate what an open stream of players would
+ * see.</p>
+ *
+ * <p>Options are given as {@code key=value} arguments:</p>
+ * <ul>
+ *     <li>{@code clients}: number of simulated players, 1000 by default</li>
+ *     <li>{@code duration}: seconds measured, 30 by default</li>
+ *     <li>{@code warmup}: seconds played before measuring, 5 by default</li>
+ *     <li>{@code mode}: {@code random} moves, the default, or the {@code scripted} shortest solution</li>
+ *     <li>{@code port}: port of a running server on localhost, by default a server is started in this JVM</li>
+ *     <li>{@code level}: path of the level file played, the built-in level by default</li>
+ *     <li>{@code seed}: seed of the random moves, 42 by default</li>
+ * </ul>
+ */
+public class LoadGenerator {
+
+    private static final long SHUTDOWN_SECONDS = 30;
+
+    private static final Set<String> OPTIONS = Set.of("clients", "duration", "warmup", "mode", "port", "level",
+            "seed");
+
+    private final int port;
+
+    private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+
+    private final AtomicLong wonGames = new AtomicLong();
+
+    private final AtomicLong lostGames = new AtomicLong();
+
+    private final AtomicLong wrongResponses = new AtomicLong();
+
+    private final AtomicLong connectionErrors = new AtomicLong();
+
+    private volatile boolean recording;
+
+    private volatile boolean over;
+
+    LoadGenerator(int port) {
+        this.port = port;
+        for (var operation : Operation.values()) {
+            histograms.put(operation, new LatencyHistogram());
+        }
+    }
+
+    int getPort() {
+        return port;
+    }
+
+    boolean isOver() {
+        return over;
+    }
+
+    void record(Operation operation, long nanos) {
+        if (recording) {
+            histograms.get(operation).record(nanos);
+        }
+    }
+
+    void gameFinished(boolean won) {
+        if (recording) {
+            (won ? wonGames : lostGames).incrementAndGet();
+        }
+    }
+
+    void wrongResponse() {
+        wrongResponses.incrementAndGet();
+    }
+
+    void connectionFailed(IOException e) {
+        if (connectionErrors.getAndIncrement() == 0) {
+            Logger.error(e, "Connection failed");
+        }
+    }
+
+    /**
+     * Runs the clients for the warmup and the measured time, then waits for them to finish their commands.
+     * @param clients .
+     * @param warmupMillis .
+     * @param durationMillis .
+     * @return Measured time in nanoseconds.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    long run(LoadClient[] clients, long warmupMillis, long durationMillis) throws InterruptedException {
+        var executor = GameServer.newConnectionExecutor();
+        for (var client : clients) {
+            executor.execute(client);
+        }
+        Thread.sleep(warmupMillis);
+        recording = true;
+        long start = System.nanoTime();
+        Thread.sleep(durationMillis);
+        recording = false;
+        long elapsed = System.nanoTime() - start;
+        over = true;
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+            Logger.warn("Clients still running after {} s", SHUTDOWN_SECONDS);
+        }
+        return elapsed;
+    }
+
+    void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long operations = 0;
+        for (var operation : Operation.values()) {
+            var histogram = histograms.get(operation);
+            long count = histogram.getTotalCount();
+            operations += count;
+            if (count == 0) {
+                continue;
+            }
+            Logger.info(String.format("%-6s %10d ops %10.0f ops/s   p50 %8.1f us   p99 %8.1f us   p99.9 %8.1f us"
+                            + "   max %8.1f us", operation, count, count / seconds,
+                    micros(histogram.getValueAtPercentile(50)), micros(histogram.getValueAtPercentile(99)),
+                    micros(histogram.getValueAtPercentile(99.9)), micros(histogram.getMax())));
+        }
+        Logger.info(String.format("Total  %10d ops %10.0f ops/s, %d games won and %d given up in %.1f s",
+                operations, operations / seconds, wonGames.get(), lostGames.get(), seconds));
+        Logger.info("Wrong responses: {}, failed connections: {}", wrongResponses.get(), connectionErrors.get());
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1e3;
+    }
+
+    boolean hasFailed() {
+        return wrongResponses.get() > 0 || connectionErrors.get() > 0;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>(Map.of("clients", "1000", "duration", "30", "warmup", "5",
+                "mode", "random", "port", "0", "seed", "42"));
+        for (var arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !OPTIONS.contains(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        if (!options.get("mode").equals("random") && !options.get("mode").equals("scripted")) {
+            throw new IllegalArgumentException("Unknown mode: " + options.get("mode"));
+        }
+        return options;
+    }
+
+    /**
+     * Runs the load and reports it, exiting with status 1 if a response was wrong or a connection failed.
+     * @param args Options as {@code key=value}.
+     * @throws Exception if the server can not be started or the run is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        var options = parseOptions(args);
+        Level level = options.containsKey("level") ? LevelLoader.file(Path.of(options.get("level")))
+                : LevelLoader.builtIn();
+        int port = Integer.parseInt(options.get("port"));
+        GameServer server = null;
+        if (port == 0) {
+            server = new GameServer(new SessionManager(id -> id == level.getId() ? level : null), 0);
+            server.start();
+            port = server.getPort();
+        }
+        int[] script = options.get("mode").equals("scripted")
+                ? new BfsSolver(level.getEngine()).solve(level.getStartState())
+                : null;
+        if (options.get("mode").equals("scripted") && script == null) {
+            throw new IllegalArgumentException("Level " + level.getId() + " can not be won");
+        }
+        var generator = new LoadGenerator(port);
+        var clients = new LoadClient[Integer.parseInt(options.get("clients"))];
+        long seed = Long.parseLong(options.get("seed"));
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = new LoadClient(generator, level, script, seed + i);
+        }
+        Logger.info("Running {} {} clients against port {}", clients.length, options.get("mode"), port);
+        long elapsed = generator.run(clients, Long.parseLong(options.get("warmup")) * 1000,
+                Long.parseLong(options.get("duration")) * 1000);
+        generator.report(elapsed);
+        if (server != null) {
+            server.close();
+        }
+        if (generator.hasFailed()) {
+            System.exit(1);
+        }
+    }
+
+}
@@ -0,0 +1,13 @@
+package game.load;
+
+/**
+ * Commands of the game server protocol, each with a latency histogram of its own.
+ */
+enum Operation {
+    START,
+    MOVES,
+    MOVE,
+    UNDO,
+    FINISH,
+    QUIT
+}
@@ -0,0 +1,351 @@
+package game;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import javafx.application.Platform;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.stage.Stage;
+import org.tinylog.Logger;
+
+import game.leaderboard.ScoreService;
+import game.model.GameModel;
+import game.model.Level;
+import game.model.MoveEvent;
+import game.model.PlayerDirection;
+import game.model.Position;
+import game.replay.Replay;
+import game.replay.ReplayRecorder;
+import game.solver.BfsSolver;
+import game.solver.DistanceTable;
+
+/**
+ * Defining the rules of the game and handling mechanics, independently of how the board is drawn.
+ */
+public abstract class AbstractGameController {
+
+    /**
+     * Enum class for defining selection phase
+     */
+    private enum SelectionPhase {
+        SELECT_FROM,
+        SELECT_TO;
+
+        /**
+         * Alternating between dot and destination selection.
+         * @return current phase
+         */
+        public SelectionPhase alter() {
+            return switch (this) {
+                case SELECT_FROM -> SELECT_TO;
+                case SELECT_TO -> SELECT_FROM;
+            };
+        }
+    }
+
+    /**
+     * Highlights of a square, named after their css classes.
+     */
+    protected enum Highlight {
+        SELECTABLE("selectable"),
+        SELECTED("selected"),
+        HINT("hint");
+
+        private final String styleClass;
+
+        Highlight(String styleClass) {
+            this.styleClass = styleClass;
+        }
+
+        public String getStyleClass() {
+            return styleClass;
+        }
+    }
+
+    /**
+     * Saves the scores in the background.
+     */
+    private ScoreService save;
+
+    /**
+     * Length of the shortest solution from the starting position, shown next to the steps on the leaderboard.
+     */
+    private int optimalSteps;
+
+    private SelectionPhase selectionPhase = SelectionPhase.SELECT_FROM;
+
+    private List<Position> selectablePositions = new ArrayList<>();
+
+    private Position selected;
+
+    private Position hint;
+
+    /**
+     * Level played, chosen on the starting screen.
+     */
+    protected final Level level = InitialViewController.getLevel();
+
+    protected final GameModel model = level.newGame();
+
+    private boolean isGameOver = false;
+
+    @FXML
+    protected Button gameOverButton;
+
+    @FXML
+    private void handleGameOverButton(ActionEvent event) throws IOException {
+
+        FXMLLoader fxmlLoader = new FXMLLoader(GameApplication.class.getResource("/Initial.fxml"));
+        Parent root = fxmlLoader.load();
+        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+        stage.setScene(new Scene(root));
+        stage.show();
+    }
+
+    /**
+     * Starts the game once the board is drawn.
+     */
+    protected void startGame() {
+        model.addMoveListener(this::handleMove);
+        setSelectablePositions();
+        showSelectablePositions();
+        optimalSteps = new BfsSolver(model.getEngine()).distance(model.getState());
+        Logger.debug("Optimal solution: {} steps", optimalSteps);
+        save = ScoreService.getDefault();
+    }
+
+    /**
+     * Shows a highlight on a square.
+     * @param position .
+     * @param highlight .
+     */
+    protected abstract void addHighlight(Position position, Highlight highlight);
+
+    /**
+     * Hides a highlight of a square.
+     * @param position .
+     * @param highlight .
+     */
+    protected abstract void removeHighlight(Position position, Highlight highlight);
+
+    /**
+     * Moves the drawing of a dot.
+     * @param oldPosition .
+     * @param newPosition .
+     */
+    protected abstract void showDotMove(Position oldPosition, Position newPosition);
+
+    /**
+     * Driver code for key press event listener, pressing H shows a hint, Ctrl+Z takes back the last move and
+     * Ctrl+Y or Ctrl+Shift+Z makes it again.
+     * @param event .
+     */
+    @FXML
+    private void handleKeyPressed(KeyEvent event) {
+        if (isGameOver) {
+            return;
+        }
+        if (event.getCode() == KeyCode.H) {
+            showHint();
+        } else if (event.isShortcutDown() && event.getCode() == KeyCode.Z && !event.isShiftDown()) {
+            changeHistory(model::undo);
+        } else if (event.isShortcutDown() && (event.getCode() == KeyCode.Y || event.getCode() == KeyCode.Z)) {
+            changeHistory(model::redo);
+        }
+    }
+
+    /**
+     * Takes back or makes again a move, starting the selection over.
+     * @param change Undo or redo of the model.
+     */
+    private void changeHistory(BooleanSupplier change) {
+        hideHint();
+        hideSelectablePositions();
+        if (selected != null) {
+            deselectSelectedPosition();
+        }
+        selectionPhase = SelectionPhase.SELECT_FROM;
+        if (change.getAsBoolean()) {
+            Logger.debug("Steps after undo or redo: {}", model.getMoveCount());
+        }
+        setSelectablePositions();
+        showSelectablePositions();
+    }
+
+    /**
+     * Highlights the square the red dot should move to, looked up in the distance table of the level.
+     */
+    private void showHint() {
+        hideHint();
+        DistanceTable.of(level).bestMove(model).ifPresent(direction -> {
+            Logger.debug("Hint: {}", direction);
+            hint = model.getDotPosition(0).moveTo(direction);
+            addHighlight(hint, Highlight.HINT);
+        });
+    }
+
+    /**
+     * Hides the hinted square.
+     */
+    private void hideHint() {
+        if (hint != null) {
+            removeHighlight(hint, Highlight.HINT);
+            hint = null;
+        }
+    }
+
+    /**
+     * Handles clicks when position is about the get changed or we are about selecting dots.
+     * @param position .
+     */
+    protected void handleClickOnSquare(Position position) {
+        switch (selectionPhase) {
+            case SELECT_FROM -> {
+                if (selectablePositions.contains(position)) {
+                    selectPosition(position);
+                    alterSelectionPhase();
+                }
+            }
+            case SELECT_TO -> {
+                if (selectablePositions.contains(position)) {
+                    var direction = PlayerDirection.of(position.row() - selected.row(), position.col() - selected.col());
+                    Logger.debug("Moving player dot {}",  direction);
+
+                    hideHint();
+                    model.move(direction, direction.inverse());
+
+                    deselectSelectedPosition();
+                    alterSelectionPhase();
+                    if (isGameOver) {
+                        gameOverButton.toFront();
+                        gameOverButton.setOpacity(0.8);
+                    }
+
+                }
+            }
+        }
+    }
+
+    /**
+     * Function for alternating between the two possible selection phases and taking care of visual properties.
+     */
+    private void alterSelectionPhase() {
+        selectionPhase = selectionPhase.alter();
+        hideSelectablePositions();
+        setSelectablePositions();
+        showSelectablePositions();
+    }
+
+    /**
+     * Recieves a position and sets it as the selected one.
+     * @param position .
+     */
+    private void selectPosition(Position position) {
+        selected = position;
+        addHighlight(selected, Highlight.SELECTED);
+    }
+
+    /**
+     *Sets "selected" to null value.
+     */
+    private void deselectSelectedPosition() {
+        removeHighlight(selected, Highlight.SELECTED);
+        selected = null;
+    }
+
+    /**
+     * Sets the selectable positions for choosing dot or moving a selected dot.
+     */
+    private void setSelectablePositions() {
+        selectablePositions.clear();
+        switch (selectionPhase) {
+            case SELECT_FROM -> selectablePositions.add(model.getDotPosition(0));
+            case SELECT_TO -> {
+                for (var direction : model.getValidMoves()) {
+                    selectablePositions.add(selected.moveTo(direction));
+                }
+                Logger.debug("Selectable moves: {}", selectablePositions);
+            }
+        }
+    }
+
+    /**
+     * Highlights the selectable positions.
+     */
+    private void showSelectablePositions() {
+        for (var selectablePosition : selectablePositions) {
+            addHighlight(selectablePosition, Highlight.SELECTABLE);
+        }
+    }
+
+    /**
+     * Hides the highlight of no longer selectable positions.
+     */
+    private void hideSelectablePositions() {
+        for (var selectablePosition : selectablePositions) {
+            removeHighlight(selectablePosition, Highlight.SELECTABLE);
+        }
+    }
+
+    /**
+     * Moves the drawing of both dots and checks if the game has ended.
+     * @param event .
+     */
+    private void handleMove(MoveEvent event) {
+        var engine = model.getEngine();
+        Logger.debug("Move: {} -> {}", engine.position(engine.redCell(event.oldState())),
+                engine.position(engine.redCell(event.newState())));
+        showDotMove(engine.position(engine.redCell(event.oldState())),
+                engine.position(engine.redCell(event.newState())));
+        showDotMove(engine.position(engine.blueCell(event.oldState())),
+                engine.position(engine.blueCell(event.newState())));
+        if (event.won()) {
+            endState();
+        }
+    }
+
+    /**
+     * Logging when the game has ended.
+     */
+    private void endState() {
+        var playerName = InitialViewController.name != null ? InitialViewController.getName() : "Unnamed Player";
+        int steps = model.getMoveCount();
+
+        Logger.info("Congratulations, you won!");
+        Logger.info("Name:"+playerName);
+        Logger.info("Number of steps made: "+model.getMoveCount());
+
+        gameOverButton.setText("Saving score...");
+        // the score refers to its replay, a score whose replay was not saved is flagged by the replay verifier
+        ReplayRecorder.getDefault().record(Replay.of(model))
+                .handle((replayOffset, e) -> {
+                    if (e != null) {
+                        Logger.error(e, "Replay could not be saved");
+                    }
+                    return new Score(playerName, steps, optimalSteps, replayOffset);
+                })
+                .thenCompose(save::submit)
+                .whenComplete((result, e) -> Platform.runLater(() -> {
+                    if (e != null) {
+                        Logger.error(e, "Score could not be saved");
+                        gameOverButton.setText("Game Over (score not saved)");
+                    } else {
+                        Logger.info("Score saved");
+                        gameOverButton.setText("Game Over");
+                    }
+                }));
+
+        isGameOver = true;
+    }
+
+}
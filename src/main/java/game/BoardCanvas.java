@@ -0,0 +1,172 @@
+package game;
+
+import java.util.BitSet;
+
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+import game.model.GameModel;
+import game.model.Position;
+import game.model.RuleEngine;
+
+/**
+ * Board drawn on a single canvas instead of a node per square, so the cost of layout and css does not grow with
+ * the size of the board.
+ *
+ * <p>Changes only mark the squares they affect as dirty, and the dirty squares are redrawn together in the next
+ * pulse. Every square draws its own half of the walls around it, so a square is redrawn without its
+ * neighbours.</p>
+ */
+public class BoardCanvas extends Canvas {
+
+    private static final Color BACKGROUND = Color.rgb(0xF4, 0xF4, 0xF4);
+
+    private static final Color SQUARE = Color.GREY;
+
+    private static final Color SELECTED = Color.SILVER;
+
+    private static final Color HINT = Color.LIGHTGREEN;
+
+    private static final Color SELECTABLE = Color.RED;
+
+    private static final Color WALL = Color.BLACK;
+
+    private static final Color[] DOTS = {Color.rgb(255, 0, 0), Color.rgb(0, 0, 255)};
+
+    private final GameModel model;
+
+    private final RuleEngine engine;
+
+    private final double cellSize;
+
+    /**
+     * Highlights of every cell, a bit per {@link AbstractGameController.Highlight} ordinal.
+     */
+    private final byte[] highlights;
+
+    private final BitSet dirty = new BitSet();
+
+    private boolean redrawScheduled;
+
+    /**
+     * Creates a canvas drawing the board of the given model.
+     * @param model .
+     * @param cellSize Width and height of a square in pixels.
+     */
+    public BoardCanvas(GameModel model, double cellSize) {
+        super(model.getEngine().getSize() * cellSize, model.getEngine().getSize() * cellSize);
+        this.model = model;
+        this.engine = model.getEngine();
+        this.cellSize = cellSize;
+        highlights = new byte[engine.getCellCount()];
+        dirty.set(0, engine.getCellCount());
+        scheduleRedraw();
+    }
+
+    /**
+     * Returns the position of the square under a point of the canvas.
+     * @param x .
+     * @param y .
+     * @return Position object, or {@code null} if the point is outside the board.
+     */
+    public Position positionAt(double x, double y) {
+        int row = (int) Math.floor(y / cellSize);
+        int col = (int) Math.floor(x / cellSize);
+        if (row < 0 || col < 0 || row >= engine.getSize() || col >= engine.getSize()) {
+            return null;
+        }
+        return new Position(row, col);
+    }
+
+    /**
+     * Shows or hides a highlight of a square.
+     * @param position .
+     * @param highlight .
+     * @param shown .
+     */
+    public void setHighlight(Position position, AbstractGameController.Highlight highlight, boolean shown) {
+        int cell = engine.cell(position);
+        int bit = 1 << highlight.ordinal();
+        highlights[cell] = (byte) (shown ? highlights[cell] | bit : highlights[cell] & ~bit);
+        invalidate(position);
+    }
+
+    /**
+     * Marks a square to be redrawn in the next pulse.
+     * @param position .
+     */
+    public void invalidate(Position position) {
+        dirty.set(engine.cell(position));
+        scheduleRedraw();
+    }
+
+    private void scheduleRedraw() {
+        if (!redrawScheduled) {
+            redrawScheduled = true;
+            Platform.runLater(this::redraw);
+        }
+    }
+
+    /**
+     * Redraws the dirty squares.
+     */
+    private void redraw() {
+        redrawScheduled = false;
+        var graphics = getGraphicsContext2D();
+        for (int cell = dirty.nextSetBit(0); cell >= 0; cell = dirty.nextSetBit(cell + 1)) {
+            drawCell(graphics, cell);
+        }
+        dirty.clear();
+    }
+
+    private void drawCell(GraphicsContext graphics, int cell) {
+        var position = engine.position(cell);
+        double x = position.col() * cellSize;
+        double y = position.row() * cellSize;
+        graphics.setFill(BACKGROUND);
+        graphics.fillRect(x, y, cellSize, cellSize);
+
+        // later highlights cover earlier ones, like the rules of the css
+        graphics.setFill(SQUARE);
+        if (isHighlighted(cell, AbstractGameController.Highlight.SELECTED)) {
+            graphics.setFill(SELECTED);
+        }
+        if (isHighlighted(cell, AbstractGameController.Highlight.HINT)) {
+            graphics.setFill(HINT);
+        }
+        graphics.fillRect(x + 0.5, y + 0.5, cellSize - 1, cellSize - 1);
+        if (isHighlighted(cell, AbstractGameController.Highlight.SELECTABLE)) {
+            graphics.setStroke(SELECTABLE);
+            graphics.setLineWidth(1);
+            graphics.strokeRect(x + 1, y + 1, cellSize - 2, cellSize - 2);
+        }
+
+        double wallWidth = Math.max(1, cellSize / 20);
+        graphics.setFill(WALL);
+        for (int direction = 0; direction < 4; direction++) {
+            if (engine.getWalls().isBlocked(cell, direction)) {
+                switch (direction) {
+                    case 0 -> graphics.fillRect(x, y, cellSize, wallWidth);
+                    case 1 -> graphics.fillRect(x + cellSize - wallWidth, y, wallWidth, cellSize);
+                    case 2 -> graphics.fillRect(x, y + cellSize - wallWidth, cellSize, wallWidth);
+                    default -> graphics.fillRect(x, y, wallWidth, cellSize);
+                }
+            }
+        }
+
+        for (int i = 0; i < DOTS.length; i++) {
+            if (model.getDotPosition(i).equals(position)) {
+                double radius = cellSize / 4;
+                graphics.setFill(DOTS[i]);
+                graphics.fillOval(x + cellSize / 2 - radius, y + cellSize / 2 - radius, 2 * radius, 2 * radius);
+            }
+        }
+    }
+
+    private boolean isHighlighted(int cell, AbstractGameController.Highlight highlight) {
+        return (highlights[cell] & 1 << highlight.ordinal()) != 0;
+    }
+
+}
@@ -0,0 +1,61 @@
+package game;
+
+import javafx.fxml.FXML;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+
+import org.tinylog.Logger;
+
+import game.model.Position;
+
+/**
+ * Game view drawing the board on a {@link BoardCanvas}, for boards too large for a node per square.
+ */
+public class CanvasGameController extends AbstractGameController {
+
+    @FXML
+    private Pane boardPane;
+
+    private BoardCanvas canvas;
+
+    /**
+     * Creating the canvas fitting the board into the pane.
+     */
+    @FXML
+    private void initialize() {
+        double cellSize = Math.min(boardPane.getPrefWidth(), boardPane.getPrefHeight()) / model.getEngine().getSize();
+        canvas = new BoardCanvas(model, cellSize);
+        canvas.setOnMouseClicked(this::handleMouseClick);
+        boardPane.getChildren().add(canvas);
+        startGame();
+    }
+
+    /**
+     * Driver code for mouse click event listener, finding the square from the coordinates of the click.
+     * @param event .
+     */
+    private void handleMouseClick(MouseEvent event) {
+        var position = canvas.positionAt(event.getX(), event.getY());
+        if (position != null) {
+            Logger.debug("Click on square {}", position);
+            handleClickOnSquare(position);
+        }
+    }
+
+    @Override
+    protected void addHighlight(Position position, Highlight highlight) {
+        canvas.setHighlight(position, highlight, true);
+    }
+
+    @Override
+    protected void removeHighlight(Position position, Highlight highlight) {
+        canvas.setHighlight(position, highlight, false);
+    }
+
+    @Override
+    protected void showDotMove(Position oldPosition, Position newPosition) {
+        canvas.invalidate(oldPosition);
+        canvas.invalidate(newPosition);
+    }
+
+}
@@ -1,97 +1,47 @@
 package game;
 
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import javafx.beans.value.ObservableValue;
-import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
-import javafx.scene.control.Button;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.ColumnConstraints;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.RowConstraints;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 
-import javafx.stage.Stage;
 import org.tinylog.Logger;
 
-import game.model.GameModel;
 import game.model.PlayerDirection;
 import game.model.Position;
 
 /**
- * Defining the rules of the game and handling mechanics.
+ * Game view drawing every square of the board as a node styled with css.
  */
-public class GameController {
+public class GameController extends AbstractGameController {
 
     /**
-     * Enum class for defining selection phase
+     * Border styles of a square by the bitmask of its sides drawn as a wall, indexed by direction code.
      */
-    private enum SelectionPhase {
-        SELECT_FROM,
-        SELECT_TO;
+    private static final String[] WALL_STYLES = new String[16];
 
-        /**
-         * Alternating between dot and destination selection.
-         * @return current phase
-         */
-        public SelectionPhase alter() {
-            return switch (this) {
-                case SELECT_FROM -> SELECT_TO;
-                case SELECT_TO -> SELECT_FROM;
-            };
+    static {
+        // css lists the sides of a border in the order top, right, bottom, left, the order of the direction codes
+        for (int walls = 0; walls < WALL_STYLES.length; walls++) {
+            var style = new StringBuilder("-fx-border-style:");
+            for (int direction = 0; direction < 4; direction++) {
+                style.append((walls & 1 << direction) != 0 ? " solid" : " dotted");
+            }
+            WALL_STYLES[walls] = style.append(';').toString();
         }
     }
 
-    /**
-     * Represents saving file.
-     */
-    private File save;
-
-    private int numberOfSteps = 1;
-
-    private SelectionPhase selectionPhase = SelectionPhase.SELECT_FROM;
-
-    private List<Position> selectablePositions = new ArrayList<>();
-
-    private Position selected;
-
-    private GameModel model = new GameModel();
-
-    private List<Score> scores2;
-
-    private boolean isGameOver = false;
-
     @FXML
     private GridPane board;
 
-    @FXML
-    private Button gameOverButton;
-
-    @FXML
-    private void handleGameOverButton(ActionEvent event) throws IOException {
-
-        FXMLLoader fxmlLoader = new FXMLLoader(GameApplication.class.getResource("/Initial.fxml"));
-        Parent root = fxmlLoader.load();
-        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-        stage.setScene(new Scene(root));
-        stage.show();
-
-        /*
-        System.exit(0);
-         */
-    }
-
+    /**
+     * Squares of the board by row and column.
+     */
+    private StackPane[][] squares;
 
     /**
      * Creating the model based on excercise 2.34.
@@ -101,19 +51,28 @@ public class GameController {
         createBoard();
         createRedDot();
         createBlueDot();
-        setSelectablePositions();
-        showSelectablePositions();
         wallBuilder();
-        save = new File(System.getProperty("user.dir"),"scores.json");
+        startGame();
     }
 
     /**
-     * Setting up the board and creating squares.
+     * Setting up the board and creating squares, with a row and a column constraint per square of the level.
      */
     private void createBoard() {
-        for (int i = 0; i < board.getRowCount(); i++) {
-            for (int j = 0; j < board.getColumnCount(); j++) {
+        int size = level.getSize();
+        for (int i = 0; i < size; i++) {
+            var column = new ColumnConstraints();
+            column.setPercentWidth(100.0 / size);
+            board.getColumnConstraints().add(column);
+            var row = new RowConstraints();
+            row.setPercentHeight(100.0 / size);
+            board.getRowConstraints().add(row);
+        }
+        squares = new StackPane[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
                 var square = createSquare();
+                squares[i][j] = square;
                 board.add(square, j, i);
             }
         }
@@ -134,19 +93,16 @@ public class GameController {
      * Creating RED dot with attributes.
      */
     private void createRedDot() {
-            model.positionProperty(0).addListener(this::dotPositionChange);
-            var dot = createDot(Color.rgb(255,0,0));
-            getSquare(model.getDotPosition(0)).getChildren().add(dot);
-
+        var dot = createDot(Color.rgb(255,0,0));
+        getSquare(model.getDotPosition(0)).getChildren().add(dot);
     }
 
     /**
      * Creating BLUE dot with attributes.
      */
     private void createBlueDot() {
-            model.positionProperty(1).addListener(this::dotPositionChange);
-            var dot = createDot(Color.rgb(0,0,255));
-            getSquare(model.getDotPosition(1)).getChildren().add(dot);
+        var dot = createDot(Color.rgb(0,0,255));
+        getSquare(model.getDotPosition(1)).getChildren().add(dot);
     }
 
     /**
@@ -155,7 +111,8 @@ public class GameController {
      * @return Circle object.
      */
     private Circle createDot(Color color) {
-        var dot = new Circle(25); // Size of dot
+        // a quarter of the side of a square, 25 on the board of 7 squares
+        var dot = new Circle(board.getPrefWidth() / level.getSize() / 4);
         dot.setFill(color);
         return dot;
     }
@@ -174,259 +131,60 @@ public class GameController {
         handleClickOnSquare(position);
     }
 
-    /**
-     * Handles clicks when position is about the get changed or we are about selecting dots.
-     * @param position .
-     */
-    private void handleClickOnSquare(Position position) {
-        switch (selectionPhase) {
-            case SELECT_FROM -> {
-                if (selectablePositions.contains(position)) {
-                    selectPosition(position);
-                    alterSelectionPhase();
-                }
-            }
-            case SELECT_TO -> {
-                if (selectablePositions.contains(position)) {
-                    var direction = PlayerDirection.of(position.row() - selected.row(), position.col() - selected.col());
-                    Logger.debug("Moving player dot {}",  direction);
-
-                    var inverseDirectionRowChange = direction.getRowChange()*-1;
-                    var inverseDirectionColChange = direction.getColChange()*-1;
-
-                    var inverseDirection = PlayerDirection.of(inverseDirectionRowChange,inverseDirectionColChange);
-
-                    model.move(direction, inverseDirection);
-
-                    deselectSelectedPosition();
-                    alterSelectionPhase();
-                    numberOfSteps += 1;
-                    if (isGameOver) {
-                        gameOverButton.toFront();
-                        gameOverButton.setOpacity(0.8);
-                    }
-
-                }
-            }
-        }
-    }
-
-    /**
-     * Function for alternating between the two possible selection phases and taking care of visual properties.
-     */
-    private void alterSelectionPhase() {
-        selectionPhase = selectionPhase.alter();
-        hideSelectablePositions();
-        setSelectablePositions();
-        showSelectablePositions();
+    @Override
+    protected void addHighlight(Position position, Highlight highlight) {
+        getSquare(position).getStyleClass().add(highlight.getStyleClass());
     }
 
-    /**
-     * Recieves a position and sets it as the selected one.
-     * @param position .
-     */
-    private void selectPosition(Position position) {
-        selected = position;
-        showSelectedPosition();
-    }
-
-    /**
-     * Creating css classes for selected positions.
-     */
-    private void showSelectedPosition() {
-        var square = getSquare(selected);
-        square.getStyleClass().add("selected");
-    }
-
-    /**
-     *Sets "selected" to null value.
-     */
-    private void deselectSelectedPosition() {
-        hideSelectedPosition();
-        selected = null;
-    }
-
-    /**
-     * Removes css class in order to hide no longer selected positions.
-     */
-    private void hideSelectedPosition() {
-        var square = getSquare(selected);
-        square.getStyleClass().remove("selected");
-    }
-
-    /**
-     * Sets the selectable positions for choosing dot or moving a selected dot.
-     */
-    private void setSelectablePositions() {
-        selectablePositions.clear();
-        switch (selectionPhase) {
-            case SELECT_FROM -> selectablePositions.add(model.getDotPosition(0));
-            case SELECT_TO -> {
-                for (var direction : model.getValidMoves()) {
-                    selectablePositions.add(selected.moveTo(direction));
-                    Logger.info("Selectable moves:"+selectablePositions);
-                    System.out.println(selectablePositions.get(0));
-                    System.out.println();
-                    System.out.println(direction.name());
-                }
-            }
-        }
-    }
-
-    /**
-     * Creating css classes for selectable positions.
-     */
-    private void showSelectablePositions() {
-        for (var selectablePosition : selectablePositions) {
-            var square = getSquare(selectablePosition);
-            square.getStyleClass().add("selectable");
-        }
-    }
-
-    /**
-     * Removes css class in order to hide no longer selectable positions.
-     */
-    private void hideSelectablePositions() {
-        for (var selectablePosition : selectablePositions) {
-            var square = getSquare(selectablePosition);
-            square.getStyleClass().remove("selectable");
-        }
-    }
-
-    /**
-     * Returns the square on the given position if a dot is present on it.
-     * @param position .
-     * @return Square object
-     */
-    private StackPane getSquare(Position position) {
-        for (var child : board.getChildren()) {
-            if (GridPane.getRowIndex(child) == position.row() && GridPane.getColumnIndex(child) == position.col()) {
-                return (StackPane) child;
-            }
-        }
-        throw new AssertionError();
+    @Override
+    protected void removeHighlight(Position position, Highlight highlight) {
+        getSquare(position).getStyleClass().remove(highlight.getStyleClass());
     }
 
     /**
      * Removes children (dot) from and old position object after assigning them to a new one.
-     * @param observable
      * @param oldPosition
      * @param newPosition
      */
-    private void dotPositionChange(ObservableValue<? extends Position> observable, Position oldPosition, Position newPosition) {
-        Logger.debug("Move: {} -> {}", oldPosition, newPosition);
+    @Override
+    protected void showDotMove(Position oldPosition, Position newPosition) {
         StackPane oldSquare = getSquare(oldPosition);
         StackPane newSquare = getSquare(newPosition);
         newSquare.getChildren().addAll(oldSquare.getChildren());
         oldSquare.getChildren().clear();
-        endState();
     }
 
     /**
-     * Logging when the game has ended.
+     * Returns the square on the given position.
+     * @param position .
+     * @return Square object
      */
-    private void endState() {
-        List<Score> scores = new ArrayList<Score>();
-        var playerName = "";
-        if (InitialViewController.name != null) {
-            playerName = InitialViewController.getName();
-        } else {
-            playerName = "Unnamed Player";
-        }
-
-
-        if(model.getDotPosition(0).equals(model.getDotPosition(1))) {
-
-
-            System.out.println(scores2);
-
-            Logger.info("Congratulations, you won!");
-            Logger.info("Name:"+playerName);
-            Logger.info("Number of steps made: "+numberOfSteps);
-
-            ObjectMapper objectMapper = new ObjectMapper();
-            scores.add(new Score(playerName,String.valueOf(numberOfSteps)));
-            try {
-                List<Score> scores2 = null;
-                if (!save.isFile())
-                    save.createNewFile();
-                else {
-                    scores2 = new ObjectMapper()
-                            .readValue(save, new TypeReference<List<Score>>() {});
-                    scores.addAll(scores2);
-                }
-                objectMapper.writeValue(save, scores);
-            } catch (IOException e){
-                e.printStackTrace();
-            }
-
-            isGameOver = true;
-
-        }
+    private StackPane getSquare(Position position) {
+        return squares[position.row()][position.col()];
     }
 
-
     /**
-     * Calls each method to display walls according to figure number 39.
+     * Draws the walls of the level as a solid border of the square above or to the left of them, since the border
+     * of a square overlaps its neighbours and a wall drawn on both of its squares would be twice as thick.
      */
     private void wallBuilder() {
-        showWall13();
-        showWall22();
-        showWall31();
-        showWall34();
-        showWall43();
-        showWall53();
-        showWall56();
-        showWall60();
-        showWall63();
-    }
-
-    /**
-     * Creates css class for every square that contains walls.
-     */
-    private void showWall13() {
-            var square = getSquare(new Position(1,3));
-            square.getStyleClass().add("wall13");
-    }
-
-    private void showWall22() {
-        var square = getSquare(new Position(2,2));
-        square.getStyleClass().add("wall22");
-    }
-
-    private void showWall31() {
-        var square = getSquare(new Position(3,1));
-        square.getStyleClass().add("wall31");
-    }
-
-    private void showWall34() {
-        var square = getSquare(new Position(3,4));
-        square.getStyleClass().add("wall34");
-    }
-
-    private void showWall43() {
-        var square = getSquare(new Position(4,3));
-        square.getStyleClass().add("wall43");
-    }
-
-    private void showWall53() {
-        var square = getSquare(new Position(5,3));
-        square.getStyleClass().add("wall53");
-    }
-
-    private void showWall56() {
-        var square = getSquare(new Position(5,6));
-        square.getStyleClass().add("wall56");
-    }
-
-    private void showWall60() {
-        var square = getSquare(new Position(6,0));
-        square.getStyleClass().add("wall60");
-    }
-
-    private void showWall63() {
-        var square = getSquare(new Position(6,3));
-        square.getStyleClass().add("wall63");
+        var engine = model.getEngine();
+        int right = PlayerDirection.RIGHT.ordinal();
+        int down = PlayerDirection.DOWN.ordinal();
+        for (int cell = 0; cell < engine.getCellCount(); cell++) {
+            int walls = 0;
+            if (engine.getWalls().isBlocked(cell, right)) {
+                walls |= 1 << right;
+            }
+            if (engine.getWalls().isBlocked(cell, down)) {
+                walls |= 1 << down;
+            }
+            if (walls != 0) {
+                var square = getSquare(engine.position(cell));
+                square.getStyleClass().add("wall");
+                square.setStyle(WALL_STYLES[walls]);
+            }
+        }
     }
 
-}
\ No newline at end of file
+}
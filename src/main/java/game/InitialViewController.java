@@ -1,16 +1,27 @@
 package game;
 
+import game.model.Level;
+import game.model.LevelLoader;
+import game.solver.LevelGenerator;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import org.tinylog.Logger;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
 
     public class InitialViewController extends Application {
 
@@ -20,9 +31,45 @@ import java.io.IOException;
 
         public static String name;
 
+        /**
+         * Largest board generated, larger ones take too long to solve for a player waiting on this screen.
+         */
+        private static final int MAX_GENERATED_SIZE = 40;
+
+        private static final double GENERATED_WALL_DENSITY = 0.2;
+
+        /**
+         * Id of generated levels, negative so it is never the id of a level file.
+         */
+        private static final int GENERATED_LEVEL_ID = -1;
+
+        /**
+         * Level played, the built-in one unless a level file was opened or a level generated.
+         */
+        private static Level level = LevelLoader.builtIn();
+
+        public static Level getLevel() {
+            return level;
+        }
+
+        @FXML
+        private Button playButton;
+
+        @FXML
+        private Label levelLabel;
+
+        @FXML
+        private TextField sizeTextField;
+
         @FXML
         private TextField nameTextField;
 
+        /**
+         * Selects the game view drawing the board on a single canvas, for large boards.
+         */
+        @FXML
+        private CheckBox canvasCheckBox;
+
         @Override
         public void start(Stage stage) throws IOException {
             Parent root = FXMLLoader.load(getClass().getResource("/Initial.fxml"));
@@ -33,9 +80,67 @@ import java.io.IOException;
             stage.show();
         }
 
+        @FXML
+        private void initialize() {
+            levelLabel.setText(level.getName());
+        }
+
+        @FXML
+        private void handleOpenLevelButton(ActionEvent event) {
+            var chooser = new FileChooser();
+            chooser.setTitle("Open level");
+            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Levels", "*.json"));
+            var file = chooser.showOpenDialog(((Node) event.getSource()).getScene().getWindow());
+            if (file == null) {
+                return;
+            }
+            try {
+                level = LevelLoader.file(file.toPath());
+                levelLabel.setText(level.getName());
+            } catch (IllegalArgumentException | UncheckedIOException e) {
+                Logger.error(e, "Level {} could not be opened", file);
+                levelLabel.setText("Invalid level file, playing " + level.getName());
+            }
+        }
+
+        /**
+         * Generates a level of the size typed, in the background, whose shortest solution takes at least as many
+         * moves as the side of the board.
+         * @param event .
+         */
+        @FXML
+        private void handleGenerateButton(ActionEvent event) {
+            int size;
+            try {
+                size = Integer.parseInt(sizeTextField.getText().trim());
+            } catch (NumberFormatException e) {
+                size = 0;
+            }
+            if (size < 2 || size > MAX_GENERATED_SIZE) {
+                levelLabel.setText("Size must be between 2 and " + MAX_GENERATED_SIZE);
+                return;
+            }
+            int generatedSize = size;
+            playButton.setDisable(true);
+            levelLabel.setText("Generating a level of size " + size + "...");
+            CompletableFuture.supplyAsync(() -> new LevelGenerator(generatedSize, GENERATED_WALL_DENSITY,
+                            generatedSize, Integer.MAX_VALUE).generate(1, GENERATED_LEVEL_ID, System.nanoTime()).get(0))
+                    .whenComplete((generated, e) -> Platform.runLater(() -> {
+                        playButton.setDisable(false);
+                        if (e != null) {
+                            Logger.error(e, "Level could not be generated");
+                            levelLabel.setText("No level generated, playing " + level.getName());
+                        } else {
+                            level = generated;
+                            levelLabel.setText(level.getName());
+                        }
+                    }));
+        }
+
         @FXML
         private void handlePlayButton(ActionEvent event) throws IOException {
-            FXMLLoader fxmlLoader = new FXMLLoader(GameApplication.class.getResource("/ui.fxml"));
+            var view = canvasCheckBox.isSelected() ? "/canvas.fxml" : "/ui.fxml";
+            FXMLLoader fxmlLoader = new FXMLLoader(GameApplication.class.getResource(view));
             Parent root = fxmlLoader.load();
             Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
             stage.setScene(new Scene(root));
@@ -1,14 +1,19 @@
 package game;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import game.leaderboard.ScorePager;
+import game.leaderboard.ScoreService;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
 import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
@@ -17,42 +22,83 @@ import javafx.scene.Scene;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
-
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+import org.tinylog.Logger;
 
 
 public class LeaderboardViewController {
     @FXML
-    private TableView tableView;
+    private TableView<Score> tableView;
 
     @FXML
     private TableColumn<Score, String> name;
 
     @FXML
-    private TableColumn<Score, String> steps;
+    private TableColumn<Score, Integer> steps;
+
+    @FXML
+    private TableColumn<Score, Integer> optimal;
+
+    @FXML
+    private TableView<Score> historyView;
+
+    @FXML
+    private TableColumn<Score, String> historyName;
+
+    @FXML
+    private TableColumn<Score, Integer> historySteps;
+
+    @FXML
+    private TableColumn<Score, Integer> historyOptimal;
+
+    private ScorePager pager;
+
+    private Window window;
+
+    private boolean left;
+
+    private final EventHandler<WindowEvent> closeOnHidden = event -> closePager();
 
     @FXML
-    private void initialize() throws IOException {
-        File save = new File(System.getProperty("user.dir"),"scores.json");
+    private void initialize() {
         name.setCellValueFactory(new PropertyValueFactory<>("name"));
         steps.setCellValueFactory(new PropertyValueFactory<>("steps"));
-        if (save.isFile()) {
-            List<Score> scores = new ObjectMapper()
-                    .readValue(save, new TypeReference<List<Score>>() {
-                    });
-            if (scores == null) {
-                scores = new ArrayList<>();
+        optimal.setCellValueFactory(new PropertyValueFactory<>("optimal"));
+        historyName.setCellValueFactory(new PropertyValueFactory<>("name"));
+        historySteps.setCellValueFactory(new PropertyValueFactory<>("steps"));
+        historyOptimal.setCellValueFactory(new PropertyValueFactory<>("optimal"));
+        ObservableList<Score> observableList = FXCollections.observableArrayList();
+        tableView.setItems(observableList);
+        ScoreService.getDefault().topScores().whenComplete((scores, e) -> Platform.runLater(() -> {
+            if (e != null) {
+                Logger.error(e, "Scores could not be read");
+            } else {
+                observableList.setAll(scores);
             }
-            ObservableList<Score> observableList = FXCollections.observableArrayList();
-            observableList.addAll(scores);
-            tableView.setItems(observableList);
-        }
+        }));
+        ScoreService.getDefault().openPager().whenComplete((opened, e) -> Platform.runLater(() -> {
+            if (e != null) {
+                Logger.error(e, "Scores could not be read");
+                return;
+            }
+            var scene = historyView.getScene();
+            if (left || scene == null || scene.getWindow() == null || !scene.getWindow().isShowing()) {
+                // the view was left before the pager opened
+                close(opened);
+                return;
+            }
+            pager = opened;
+            window = scene.getWindow();
+            window.addEventHandler(WindowEvent.WINDOW_HIDDEN, closeOnHidden);
+            historyView.setItems(new PagedScoreList(opened));
+        }));
     }
 
     @FXML
     private void handleBackButton(ActionEvent event) throws IOException {
+        closePager();
         FXMLLoader fxmlLoader = new FXMLLoader(GameApplication.class.getResource("/Initial.fxml"));
         Parent root = fxmlLoader.load();
         Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
@@ -60,5 +106,86 @@ public class LeaderboardViewController {
         stage.show();
     }
 
-}
+    /**
+     * Closes the pager once the view is left, by the back button or by closing the window.
+     */
+    private void closePager() {
+        left = true;
+        if (window != null) {
+            window.removeEventHandler(WindowEvent.WINDOW_HIDDEN, closeOnHidden);
+            window = null;
+        }
+        if (pager != null) {
+            close(pager);
+            pager = null;
+        }
+    }
+
+    private static void close(ScorePager pager) {
+        try {
+            pager.close();
+        } catch (IOException e) {
+            Logger.error(e, "Closing the scores failed");
+        }
+    }
+
+    /**
+     * Unmodifiable list reading the scores from a pager, so the table only decodes the pages of the visible rows.
+     *
+     * <p>Pages are decoded by the {@link ScoreService}, never on the JavaFX application thread. Until the page of
+     * a row arrives the row is {@code null}, shown empty, and it is replaced by its score once decoded.</p>
+     */
+    private class PagedScoreList extends ObservableListBase<Score> {
+
+        private final ScorePager pager;
+
+        private final Map<Integer, List<Integer>> loading = new HashMap<>();
+
+        PagedScoreList(ScorePager pager) {
+            this.pager = pager;
+        }
 
+        @Override
+        public Score get(int index) {
+            var score = pager.getIfLoaded(index);
+            if (score == null) {
+                load(index);
+            }
+            return score;
+        }
+
+        @Override
+        public int size() {
+            return pager.size();
+        }
+
+        private void load(int index) {
+            int page = pager.pageOf(index);
+            var waiting = loading.get(page);
+            if (waiting != null) {
+                waiting.add(index);
+                return;
+            }
+            List<Integer> requested = new ArrayList<>();
+            requested.add(index);
+            loading.put(page, requested);
+            ScoreService.getDefault().loadPage(pager, index).whenComplete((score, e) -> Platform.runLater(() -> {
+                if (pager != LeaderboardViewController.this.pager) {
+                    return;
+                }
+                if (e != null) {
+                    // the page stays marked as loading, so the table does not request it again
+                    Logger.error(e, "Scores could not be read");
+                    return;
+                }
+                loading.remove(page);
+                beginChange();
+                for (int requestedIndex : requested) {
+                    nextSet(requestedIndex, null);
+                }
+                endChange();
+            }));
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package game;
+
+import game.model.GameModel;
+import game.model.LevelLoader;
+import game.model.RuleEngine;
+import game.solver.Perft;
+import game.solver.TranspositionTable;
+
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import org.tinylog.Logger;
+
+/**
+ * Headless entry point counting the move sequences of every depth up to a maximum from the starting position of
+ * a level, reporting the nodes per second of the single-threaded and the parallel count, and of the parallel
+ * count reusing subtree counts from a transposition table.
+ *
+ * <p>At every depth the count is checked against the parallel and hashed counts and the count of the engine
+ * without a move table, and up to {@value #REFERENCE_DEPTH} moves against making the moves on a
+ * {@link GameModel}. The exit status is 1 if any count differs.</p>
+ */
+public class PerftMain {
+
+    /**
+     * Deepest count checked against the moves made on a model.
+     */
+    private static final int REFERENCE_DEPTH = 10;
+
+    /**
+     * Number of entries of the transposition table of the hashed count.
+     */
+    private static final int TABLE_CAPACITY = 1 << 20;
+
+    /**
+     * Runs the counts.
+     * @param args Maximum depth, 18 by default, and the path of a level file, the built-in level by default.
+     */
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 18;
+        var level = args.length > 1 ? LevelLoader.file(Path.of(args[1])) : LevelLoader.builtIn();
+        var compiled = new Perft(level.getEngine());
+        var plain = new Perft(new RuleEngine(level.getEngine().getWalls()));
+        var table = new TranspositionTable(TABLE_CAPACITY);
+        var hashed = new Perft(level.getEngine(), ForkJoinPool.commonPool(), table);
+        long state = level.getStartState();
+        boolean failed = false;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long nodes = compiled.count(state, depth);
+            long sequentialTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            long parallelNodes = compiled.parallelCount(state, depth);
+            long parallelTime = System.nanoTime() - start;
+            table.clear();
+            start = System.nanoTime();
+            long hashedNodes = hashed.parallelCount(state, depth);
+            long hashedTime = System.nanoTime() - start;
+            Logger.info("Depth {}: {} nodes, {} nodes/s, {} nodes/s in parallel, {} nodes/s hashed", depth, nodes,
+                    nodesPerSecond(nodes, sequentialTime), nodesPerSecond(nodes, parallelTime),
+                    nodesPerSecond(nodes, hashedTime));
+            failed |= check(depth, "parallel", nodes, parallelNodes);
+            failed |= check(depth, "hashed", nodes, hashedNodes);
+            failed |= check(depth, "plain engine", nodes, plain.count(state, depth));
+            if (depth <= REFERENCE_DEPTH) {
+                failed |= check(depth, "game model", nodes, Perft.countOnModel(level.newGame(), depth));
+            }
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean check(int depth, String name, long expected, long actual) {
+        if (expected != actual) {
+            Logger.error("Depth {}: {} counted {} nodes instead of {}", depth, name, actual, expected);
+            return true;
+        }
+        return false;
+    }
+
+    private static long nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : (long) (nodes * 1e9 / nanos);
+    }
+
+}
@@ -1,5 +1,7 @@
 package game;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @lombok.Data
@@ -8,11 +10,28 @@ public class Score {
     @JsonProperty("name")
     private String name;
     @JsonProperty("steps")
-    private String steps;
+    private int steps;
+    @JsonProperty("optimal")
+    private Integer optimal;
+    /**
+     * Offset of the record of the game in the replay file, checked by the replay verifier, or {@code null} if no
+     * replay was recorded.
+     */
+    @JsonProperty("replay")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long replayOffset;
 
-    public Score(@JsonProperty("name") String name, @JsonProperty("steps")String steps) {
+    public Score(String name, int steps, Integer optimal) {
+        this(name, steps, optimal, null);
+    }
+
+    @JsonCreator
+    public Score(@JsonProperty("name") String name, @JsonProperty("steps") int steps, @JsonProperty("optimal") Integer optimal,
+                 @JsonProperty("replay") Long replayOffset) {
 
         this.name = name;
         this.steps = steps;
+        this.optimal = optimal;
+        this.replayOffset = replayOffset;
     }
 }
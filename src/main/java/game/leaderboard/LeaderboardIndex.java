@@ -0,0 +1,201 @@
+package game.leaderboard;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import game.Score;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the best scores, fewest steps first, kept globally and for every player in a directory of small files.
+ *
+ * <p>Every list is bounded to {@value #TOP_K} scores and updated incrementally on each insert. The global list is
+ * a file of its own, and the lists of the players are spread over files by a hash of their name, so reading the
+ * leaderboard or adding a score reads and writes a few lists of at most {@value #TOP_K} scores, no matter how
+ * many games or players are recorded. Among scores with the same number of steps the earlier one ranks higher.</p>
+ *
+ * <p>The global file is written last, so the index is complete whenever it exists.</p>
+ */
+public class LeaderboardIndex {
+
+    /**
+     * Name of the index directory.
+     */
+    public static final String DIRECTORY_NAME = "leaderboard";
+
+    /**
+     * Number of scores kept in every list.
+     */
+    public static final int TOP_K = 10;
+
+    static final String GLOBAL_FILE_NAME = "global.json";
+
+    private static final String PLAYERS_DIRECTORY_NAME = "players";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final TypeReference<List<Score>> SCORES = new TypeReference<>() {};
+
+    private static final TypeReference<Map<String, List<Score>>> PLAYERS = new TypeReference<>() {};
+
+    private final Path global;
+
+    private final Path players;
+
+    /**
+     * Creates the index stored in the given directory.
+     * @param directory .
+     */
+    public LeaderboardIndex(Path directory) {
+        global = directory.resolve(GLOBAL_FILE_NAME);
+        players = directory.resolve(PLAYERS_DIRECTORY_NAME);
+    }
+
+    /**
+     * @return Whether the index was built, otherwise it has to be {@link #rebuild(List) rebuilt}.
+     */
+    public boolean exists() {
+        return Files.isRegularFile(global);
+    }
+
+    /**
+     * @return The best scores of every player, fewest steps first.
+     * @throws IOException if the index can not be read, or does not exist.
+     */
+    public List<Score> getTopScores() throws IOException {
+        return List.copyOf(OBJECT_MAPPER.readValue(Files.readAllBytes(global), SCORES));
+    }
+
+    /**
+     * @param name Name of the player.
+     * @return The best scores of the player, fewest steps first.
+     * @throws IOException if the index can not be read.
+     */
+    public List<Score> getTopScores(String name) throws IOException {
+        return List.copyOf(readPlayers(playerFile(name)).getOrDefault(name, List.of()));
+    }
+
+    /**
+     * Adds scores to the global list and to the lists of their players if they rank among the best, reading and
+     * writing only those lists.
+     * @param scores Scores in the order they were made.
+     * @throws IOException if the index can not be read or written, or does not exist.
+     */
+    public void addAll(List<Score> scores) throws IOException {
+        var top = new ArrayList<>(getTopScores());
+        Map<Path, Map<String, List<Score>>> changedFiles = new HashMap<>();
+        for (var score : scores) {
+            insert(top, score);
+            var file = playerFile(score.getName());
+            var filePlayers = changedFiles.get(file);
+            if (filePlayers == null) {
+                filePlayers = readPlayers(file);
+                changedFiles.put(file, filePlayers);
+            }
+            insert(filePlayers.computeIfAbsent(score.getName(), name -> new ArrayList<>(TOP_K)), score);
+        }
+        Files.createDirectories(players);
+        for (var entry : changedFiles.entrySet()) {
+            ScoreLog.replace(entry.getKey(), OBJECT_MAPPER.writeValueAsBytes(entry.getValue()));
+        }
+        ScoreLog.replace(global, OBJECT_MAPPER.writeValueAsBytes(top));
+    }
+
+    /**
+     * Builds the index again from every score.
+     * @param scores Every score, in the order they were made.
+     * @throws IOException if the index can not be written.
+     */
+    public void rebuild(List<Score> scores) throws IOException {
+        Files.deleteIfExists(global);
+        Map<Path, Map<String, List<Score>>> files = new HashMap<>();
+        for (var score : scores) {
+            insert(files.computeIfAbsent(playerFile(score.getName()), file -> new HashMap<>())
+                    .computeIfAbsent(score.getName(), name -> new ArrayList<>(TOP_K)), score);
+        }
+        if (Files.isDirectory(players)) {
+            try (var stale = Files.list(players)) {
+                for (var file : (Iterable<Path>) stale::iterator) {
+                    if (!files.containsKey(file)) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        }
+        Files.createDirectories(players);
+        for (var entry : files.entrySet()) {
+            ScoreLog.replace(entry.getKey(), OBJECT_MAPPER.writeValueAsBytes(entry.getValue()));
+        }
+        ScoreLog.replace(global, OBJECT_MAPPER.writeValueAsBytes(topScores(scores)));
+    }
+
+    /**
+     * Drops the index, so it is rebuilt before its next use.
+     * @throws IOException if the global file can not be deleted.
+     */
+    public void invalidate() throws IOException {
+        Files.deleteIfExists(global);
+    }
+
+    /**
+     * Ranks scores without an index.
+     * @param scores Scores in the order they were made.
+     * @return The best of the scores, fewest steps first.
+     */
+    public static List<Score> topScores(List<Score> scores) {
+        List<Score> top = new ArrayList<>(TOP_K);
+        for (var score : scores) {
+            insert(top, score);
+        }
+        return List.copyOf(top);
+    }
+
+    /**
+     * Ranks the scores of a player without an index.
+     * @param scores Scores in the order they were made.
+     * @param name Name of the player.
+     * @return The best scores of the player, fewest steps first.
+     */
+    public static List<Score> topScores(List<Score> scores, String name) {
+        return topScores(scores.stream().filter(score -> score.getName().equals(name)).toList());
+    }
+
+    private Path playerFile(String name) {
+        // FNV-1a, players whose names collide share a file
+        long hash = 0xCBF29CE484222325L;
+        for (var b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        return players.resolve(String.format("%016x.json", hash));
+    }
+
+    private static Map<String, List<Score>> readPlayers(Path file) throws IOException {
+        try {
+            return OBJECT_MAPPER.readValue(Files.readAllBytes(file), PLAYERS);
+        } catch (NoSuchFileException e) {
+            return new HashMap<>();
+        }
+    }
+
+    private static void insert(List<Score> top, Score score) {
+        int index = top.size();
+        while (index > 0 && top.get(index - 1).getSteps() > score.getSteps()) {
+            index--;
+        }
+        if (index < TOP_K) {
+            top.add(index, score);
+            if (top.size() > TOP_K) {
+                top.remove(TOP_K);
+            }
+        }
+    }
+
+}
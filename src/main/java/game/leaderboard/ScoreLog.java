@@ -0,0 +1,515 @@
+package game.leaderboard;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import game.Score;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.tinylog.Logger;
+
+/**
+ * Leaderboard storage made of a snapshot and an append-only log, shared safely by several game processes.
+ *
+ * <p>The snapshot is {@value #SNAPSHOT_FILE_NAME}, the list of scores newest first, in the format the game has
+ * always used. Every new score is appended to {@value #LOG_FILE_NAME} as a single line holding the CRC-32 of the
+ * record in hexadecimal and the record as JSON, and once the log holds {@value #COMPACTION_THRESHOLD} records, it
+ * is merged into a new snapshot.</p>
+ *
+ * <p>Writers hold an exclusive {@link FileChannel#lock() lock} on {@value #LOCK_FILE_NAME}. A record cut short by
+ * a crash fails its checksum and is skipped, and the next writer cuts it off the log. Other files are written to
+ * a temporary file and renamed into place.</p>
+ *
+ * <p>A compaction makes the generation stored in {@value #GENERATION_FILE_NAME} odd, writes the merged scores to
+ * {@value #NEXT_SNAPSHOT_FILE_NAME} and moves the log aside to {@value #OLD_LOG_FILE_NAME}. Making the
+ * generation even again commits it, after which the new snapshot is renamed into place and the old log deleted.
+ * A compaction cut short by a crash is rolled back if it was not committed and finished otherwise, when the log
+ * is opened and before every write, so no score is ever in both the snapshot read and the log read. Readers take
+ * no lock and never wait for a compaction: while the generation is odd they read the previous snapshot and log,
+ * and a reader that saw the generation change reads again.</p>
+ */
+public class ScoreLog {
+
+    /**
+     * Name of the snapshot file.
+     */
+    public static final String SNAPSHOT_FILE_NAME = "scores.json";
+
+    /**
+     * Name of the log file.
+     */
+    public static final String LOG_FILE_NAME = "scores.log";
+
+    /**
+     * Name of the file locked by writers.
+     */
+    public static final String LOCK_FILE_NAME = "scores.lock";
+
+    /**
+     * Name of the file holding the number of compaction steps done.
+     */
+    public static final String GENERATION_FILE_NAME = "scores.gen";
+
+    /**
+     * Name of the snapshot written by a compaction, until it is renamed into place.
+     */
+    public static final String NEXT_SNAPSHOT_FILE_NAME = "scores.json.next";
+
+    /**
+     * Name of the log merged by a compaction, until it is deleted.
+     */
+    public static final String OLD_LOG_FILE_NAME = "scores.log.old";
+
+    /**
+     * Number of records in the log triggering a compaction.
+     */
+    public static final int COMPACTION_THRESHOLD = 256;
+
+    /**
+     * Time after which a reader that keeps seeing compactions gives up.
+     */
+    private static final long MAX_READ_NANOS = 10_000_000_000L;
+
+    private static final long MAX_READ_BACKOFF_MILLIS = 50;
+
+    /**
+     * A file lock is held by the whole process, so writers of this process also synchronize on a monitor per
+     * lock file.
+     */
+    private static final Map<Path, Object> MONITORS = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Path directory;
+
+    private final Path snapshot;
+
+    private final Path log;
+
+    private final Path nextSnapshot;
+
+    private final Path oldLog;
+
+    private final Path lockFile;
+
+    private final Path generationFile;
+
+    private final Object monitor;
+
+    /**
+     * Generation of the log whose lines were counted, guarded by the lock of the writers.
+     */
+    private long countedGeneration = -1;
+
+    /**
+     * Length of the log up to which lines were counted.
+     */
+    private long countedLength;
+
+    /**
+     * Number of lines of the log up to {@link #countedLength}.
+     */
+    private int countedLines;
+
+    /**
+     * Action run while holding the lock of the writers.
+     */
+    public interface Action {
+        void run() throws IOException;
+    }
+
+    private interface Read<T> {
+        T run(Path snapshotFile, Path logFile) throws IOException;
+    }
+
+    /**
+     * Creates a score log in the given directory, finishing or rolling back a compaction cut short by a crash.
+     * @param directory .
+     */
+    public ScoreLog(Path directory) {
+        this.directory = directory;
+        snapshot = directory.resolve(SNAPSHOT_FILE_NAME);
+        log = directory.resolve(LOG_FILE_NAME);
+        nextSnapshot = directory.resolve(NEXT_SNAPSHOT_FILE_NAME);
+        oldLog = directory.resolve(OLD_LOG_FILE_NAME);
+        lockFile = directory.resolve(LOCK_FILE_NAME);
+        generationFile = directory.resolve(GENERATION_FILE_NAME);
+        monitor = MONITORS.computeIfAbsent(lockFile.toAbsolutePath().normalize(), path -> new Object());
+        if (Files.isDirectory(directory)) {
+            try {
+                locked(() -> { });
+            } catch (IOException e) {
+                Logger.warn(e, "Could not recover {}", directory);
+            }
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Appends a score to the log and forces it to the disk.
+     * @param score .
+     * @throws IOException if the log can not be written.
+     */
+    public void append(Score score) throws IOException {
+        appendAll(List.of(score));
+    }
+
+    /**
+     * Appends scores to the log in the given order, forcing them to the disk once.
+     * @param scores .
+     * @throws IOException if the log can not be written.
+     */
+    public void appendAll(List<Score> scores) throws IOException {
+        appendAll(scores, () -> { });
+    }
+
+    /**
+     * Appends scores to the log in the given order, forcing them to the disk once, then runs the given action
+     * before releasing the lock, so files derived from the scores are updated by one writer at a time.
+     * @param scores .
+     * @param afterAppend .
+     * @throws IOException if the log can not be written, or the action failed.
+     */
+    public void appendAll(List<Score> scores, Action afterAppend) throws IOException {
+        var lines = new StringBuilder();
+        for (var score : scores) {
+            var json = objectMapper.writeValueAsString(score);
+            lines.append(String.format("%08x ", checksum(json))).append(json).append('\n');
+        }
+        var buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        locked(() -> {
+            try (var channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                cutTornRecord(channel);
+                channel.position(channel.size());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                countLines(channel);
+            }
+            // blank and corrupt lines count as records, the compaction drops them
+            if (countedLines >= COMPACTION_THRESHOLD) {
+                compactLocked();
+            }
+            afterAppend.run();
+        });
+    }
+
+    /**
+     * Reads the snapshot and the log.
+     * @return List of every score, newest first.
+     * @throws IOException if the files can not be read.
+     */
+    public List<Score> readAll() throws IOException {
+        return readConsistently((snapshotFile, logFile) -> {
+            List<Score> scores = readLog(logFile);
+            Collections.reverse(scores);
+            scores.addAll(readSnapshot(snapshotFile));
+            return scores;
+        });
+    }
+
+    /**
+     * Opens a paged view of every score, decoding the snapshot on demand.
+     * @return ScorePager object, to be closed by the caller.
+     * @throws IOException if the files can not be read.
+     */
+    public ScorePager openPager() throws IOException {
+        return readConsistently((snapshotFile, logFile) -> {
+            List<Score> tail = readLog(logFile);
+            Collections.reverse(tail);
+            return new ScorePager(snapshotFile, tail);
+        });
+    }
+
+    /**
+     * Merges the log into a new snapshot and empties the log.
+     * @throws IOException if the files can not be written.
+     */
+    public void compact() throws IOException {
+        locked(this::compactLocked);
+    }
+
+    /**
+     * Runs an action holding the lock of the writers, after recovering from a crashed compaction.
+     * @param action .
+     * @throws IOException if the lock can not be taken, the recovery failed or the action failed.
+     */
+    private void locked(Action action) throws IOException {
+        synchronized (monitor) {
+            Files.createDirectories(directory);
+            try (var channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // released when the channel is closed
+                channel.lock();
+                recoverLocked();
+                action.run();
+            }
+        }
+    }
+
+    private void compactLocked() throws IOException {
+        List<Score> scores = readLog(log);
+        Collections.reverse(scores);
+        scores.addAll(readSnapshot(snapshot));
+        long generation = readGeneration();
+        writeGeneration(generation + 1);
+        replace(nextSnapshot, objectMapper.writeValueAsBytes(scores));
+        if (Files.exists(log)) {
+            Files.move(log, oldLog, StandardCopyOption.ATOMIC_MOVE);
+        }
+        // the compaction is committed once the generation is even again
+        writeGeneration(generation + 2);
+        finishCompaction();
+        Logger.debug("Compacted {} scores into {}", scores.size(), snapshot);
+    }
+
+    private void finishCompaction() throws IOException {
+        if (Files.exists(nextSnapshot)) {
+            moveIntoPlace(nextSnapshot, snapshot);
+        }
+        Files.deleteIfExists(oldLog);
+    }
+
+    /**
+     * Rolls back a compaction cut short before it was committed, or finishes one cut short after.
+     * @throws IOException if the files can not be written.
+     */
+    private void recoverLocked() throws IOException {
+        long generation = readGeneration();
+        if (generation % 2 != 0) {
+            Logger.warn("Rolling back an unfinished compaction of {}", directory);
+            Files.deleteIfExists(nextSnapshot);
+            if (Files.exists(oldLog)) {
+                // no writer appended since the log was moved aside, as writers recover first
+                Files.move(oldLog, log, StandardCopyOption.ATOMIC_MOVE);
+            }
+            writeGeneration(generation + 1);
+        } else if (Files.exists(nextSnapshot) || Files.exists(oldLog)) {
+            Logger.warn("Finishing a compaction of {}", directory);
+            finishCompaction();
+        }
+    }
+
+    /**
+     * Counts the lines appended to the log since it was last counted, so a write only scans the records appended
+     * meanwhile, by this or any other process. A compaction or its rollback changes the generation, after which
+     * the log is counted from its start.
+     * @param channel Channel of the log, holding complete records only.
+     * @throws IOException if the log can not be read.
+     */
+    private void countLines(FileChannel channel) throws IOException {
+        long generation = readGeneration();
+        long size = channel.size();
+        if (generation != countedGeneration || size < countedLength) {
+            countedGeneration = generation;
+            countedLength = 0;
+            countedLines = 0;
+        }
+        var buffer = ByteBuffer.allocate(8192);
+        while (countedLength < size) {
+            buffer.clear();
+            int read = channel.read(buffer, countedLength);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    countedLines++;
+                }
+            }
+            countedLength += read;
+        }
+    }
+
+    /**
+     * Cuts the last record off the log if it has no line end, because a writer crashed while appending it.
+     * @param channel Channel of the log.
+     * @throws IOException if the log can not be written.
+     */
+    private void cutTornRecord(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long end = size;
+        var buffer = ByteBuffer.allocate(1);
+        while (end > 0) {
+            buffer.clear();
+            channel.read(buffer, end - 1);
+            if (buffer.get(0) == '\n') {
+                break;
+            }
+            end--;
+        }
+        if (end < size) {
+            Logger.warn("Cutting a torn record of {} bytes off {}", size - end, log);
+            channel.truncate(end);
+        }
+    }
+
+    /**
+     * Runs a read without locking on the files of the last committed compaction, repeating it with a growing
+     * pause if a compaction step replaced them meanwhile.
+     * @param read .
+     * @return Result of the read.
+     * @throws IOException if the files can not be read, or kept changing for {@value #MAX_READ_NANOS} ns.
+     */
+    private <T> T readConsistently(Read<T> read) throws IOException {
+        long deadline = System.nanoTime() + MAX_READ_NANOS;
+        long backoffMillis = 1;
+        while (true) {
+            long generation = readGeneration();
+            // while a compaction runs, the previous snapshot and the log, maybe moved aside, are still complete
+            boolean committed = generation % 2 == 0;
+            Path snapshotFile = committed && Files.exists(nextSnapshot) ? nextSnapshot : snapshot;
+            Path logFile = !committed && Files.exists(oldLog) ? oldLog : log;
+            try {
+                T result = read.run(snapshotFile, logFile);
+                // a file that vanished before it was opened reads as empty, so check none moved meanwhile
+                if (readGeneration() == generation
+                        && (snapshotFile == snapshot || Files.exists(nextSnapshot))
+                        && (logFile == oldLog || committed || !Files.exists(oldLog))) {
+                    return result;
+                }
+                if (result instanceof AutoCloseable closeable) {
+                    closeable.close();
+                }
+            } catch (NoSuchFileException e) {
+                Logger.debug("{} was replaced while reading", e.getFile());
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IOException("Scores kept changing while reading, try again later");
+            }
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading scores", e);
+            }
+            backoffMillis = Math.min(2 * backoffMillis, MAX_READ_BACKOFF_MILLIS);
+        }
+    }
+
+    private List<Score> readSnapshot(Path file) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) == 0) {
+            return new ArrayList<>();
+        }
+        List<Score> scores = objectMapper.readValue(file.toFile(), new TypeReference<List<Score>>() {});
+        return scores == null ? new ArrayList<>() : scores;
+    }
+
+    private List<Score> readLog(Path file) throws IOException {
+        List<Score> scores = new ArrayList<>();
+        if (!Files.isRegularFile(file)) {
+            return scores;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                var score = parseRecord(line);
+                if (score != null) {
+                    scores.add(score);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Parses a line of the log.
+     * @param line .
+     * @return Score object, or {@code null} if the line is blank or does not match its checksum.
+     * @throws IOException if a record matching its checksum is not valid JSON.
+     */
+    private Score parseRecord(String line) throws IOException {
+        if (line.isBlank()) {
+            return null;
+        }
+        int separator = line.indexOf(' ');
+        if (separator > 0) {
+            var json = line.substring(separator + 1);
+            try {
+                if (Long.parseLong(line.substring(0, separator), 16) == checksum(json)) {
+                    return objectMapper.readValue(json, Score.class);
+                }
+            } catch (NumberFormatException e) {
+                // not a checksum, the record is corrupt
+            }
+        }
+        Logger.warn("Skipping a corrupt record of {}", log);
+        return null;
+    }
+
+    private static long checksum(String json) {
+        var crc = new CRC32();
+        crc.update(json.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private long readGeneration() throws IOException {
+        try {
+            var content = Files.readString(generationFile, StandardCharsets.UTF_8).trim();
+            return content.isEmpty() ? 0 : Long.parseLong(content);
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt generation file " + generationFile, e);
+        }
+    }
+
+    private void writeGeneration(long generation) throws IOException {
+        replace(generationFile, Long.toString(generation).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Replaces a file at once, by writing a temporary file, forcing it to the disk and renaming it.
+     * @param file .
+     * @param content .
+     * @throws IOException if the file can not be written.
+     */
+    static void replace(Path file, byte[] content) throws IOException {
+        var temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (var channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                var buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            moveIntoPlace(temporary, file);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+package game.leaderboard;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import game.Score;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only view of every score, newest first, decoding the snapshot one page at a time.
+ *
+ * <p>Opening the pager streams through the snapshot with a {@link JsonParser} without decoding the records,
+ * remembering the byte offset of the first record of every page. A page is decoded on first access, and at most
+ * {@value #CACHED_PAGES} decoded pages are kept, so the memory used does not depend on the size of the file.
+ * The snapshot stays open until the pager is closed, so a compaction replacing the file does not affect the
+ * view. {@link #getIfLoaded(int)} never waits for a page being decoded, so a user interface can show a
+ * placeholder and decode the page in the background.</p>
+ */
+public class ScorePager implements AutoCloseable {
+
+    /**
+     * Number of records in a page.
+     */
+    public static final int PAGE_SIZE = 100;
+
+    /**
+     * Number of decoded pages kept in memory.
+     */
+    public static final int CACHED_PAGES = 8;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+
+    private final List<Score> tail;
+
+    private final FileChannel snapshot;
+
+    private final long[] pageOffsets;
+
+    private final int snapshotSize;
+
+    private final Map<Integer, List<Score>> pages = new LinkedHashMap<>(CACHED_PAGES * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Score>> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    /**
+     * Opens a pager on the given snapshot.
+     * @param snapshotFile Snapshot file, a JSON array of scores newest first.
+     * @param tail Scores not yet in the snapshot, newest first.
+     * @throws IOException if the snapshot can not be read.
+     */
+    ScorePager(Path snapshotFile, List<Score> tail) throws IOException {
+        this.tail = List.copyOf(tail);
+        if (!Files.isRegularFile(snapshotFile) || Files.size(snapshotFile) == 0) {
+            snapshot = null;
+            pageOffsets = new long[0];
+            snapshotSize = 0;
+            return;
+        }
+        snapshot = FileChannel.open(snapshotFile, StandardOpenOption.READ);
+        try {
+            List<Long> offsets = new ArrayList<>();
+            int count = 0;
+            try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(stream(0))) {
+                if (parser.nextToken() == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        if (count % PAGE_SIZE == 0) {
+                            offsets.add(parser.getTokenLocation().getByteOffset());
+                        }
+                        parser.skipChildren();
+                        count++;
+                    }
+                }
+            }
+            snapshotSize = count;
+            pageOffsets = offsets.stream().mapToLong(Long::longValue).toArray();
+        } catch (IOException | RuntimeException e) {
+            snapshot.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Number of scores.
+     */
+    public int size() {
+        return tail.size() + snapshotSize;
+    }
+
+    /**
+     * Returns the score with the given index, decoding its page if it is not cached.
+     * @param index Index of the score, the newest one having index 0.
+     * @return Score object.
+     */
+    public synchronized Score get(int index) {
+        var score = getIfLoaded(index);
+        if (score != null) {
+            return score;
+        }
+        int page = pageOf(index);
+        List<Score> scores;
+        try {
+            scores = readPage(page);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        synchronized (pages) {
+            pages.put(page, scores);
+        }
+        return scores.get((index - tail.size()) % PAGE_SIZE);
+    }
+
+    /**
+     * Returns the score with the given index if it is in memory, without waiting for a page being decoded.
+     * @param index Index of the score, the newest one having index 0.
+     * @return Score object, or {@code null} if its page has to be decoded by {@link #get(int)} first.
+     */
+    public Score getIfLoaded(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        if (index < tail.size()) {
+            return tail.get(index);
+        }
+        index -= tail.size();
+        synchronized (pages) {
+            var page = pages.get(index / PAGE_SIZE);
+            return page == null ? null : page.get(index % PAGE_SIZE);
+        }
+    }
+
+    /**
+     * @param index Index of a score, the newest one having index 0.
+     * @return Index of the page decoded together with the score, or -1 if the score is always in memory.
+     */
+    public int pageOf(int index) {
+        return index < tail.size() ? -1 : (index - tail.size()) / PAGE_SIZE;
+    }
+
+    private List<Score> readPage(int page) throws IOException {
+        List<Score> scores = new ArrayList<>(PAGE_SIZE);
+        // the page starts inside the array of the snapshot, an opening bracket makes it a valid document again
+        var input = new SequenceInputStream(new ByteArrayInputStream("[".getBytes(StandardCharsets.UTF_8)),
+                stream(pageOffsets[page]));
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(input)) {
+            parser.nextToken();
+            while (scores.size() < PAGE_SIZE && parser.nextToken() == JsonToken.START_OBJECT) {
+                scores.add(OBJECT_MAPPER.readValue(parser, Score.class));
+            }
+        }
+        return scores;
+    }
+
+    private InputStream stream(long offset) throws IOException {
+        snapshot.position(offset);
+        return Channels.newInputStream(snapshot);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        synchronized (pages) {
+            pages.clear();
+        }
+        if (snapshot != null) {
+            snapshot.close();
+        }
+    }
+
+}
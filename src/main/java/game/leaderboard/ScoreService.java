@@ -0,0 +1,272 @@
+package game.leaderboard;
+
+import game.Score;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.tinylog.Logger;
+
+/**
+ * Background persistence of the scores, so no file I/O happens on the JavaFX application thread.
+ *
+ * <p>Requests are served in order by a single writer thread. Scores submitted while the writer is busy are
+ * appended to the {@link ScoreLog} in one batch and added to the {@link LeaderboardIndex}, and reads are served
+ * after every score submitted before them, so they always see a consistent view.</p>
+ */
+public class ScoreService implements AutoCloseable {
+
+    /**
+     * Maximum number of requests served in one batch.
+     */
+    private static final int MAX_BATCH = 64;
+
+    private static ScoreService defaultService;
+
+    private final ScoreLog scoreLog;
+
+    private final LeaderboardIndex index;
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+
+    private final Thread writer;
+
+    private volatile boolean closed;
+
+    private interface Request {
+    }
+
+    private record Write(Score score, CompletableFuture<Void> done) implements Request {
+    }
+
+    private interface Query<T> {
+        T run() throws IOException;
+    }
+
+    private record Read<T>(Query<T> query, CompletableFuture<T> result) implements Request {
+    }
+
+    private record Stop() implements Request {
+    }
+
+    /**
+     * Creates a service writing to the given score log, and starts its writer thread.
+     * @param scoreLog .
+     */
+    public ScoreService(ScoreLog scoreLog) {
+        this.scoreLog = scoreLog;
+        index = new LeaderboardIndex(scoreLog.getDirectory().resolve(LeaderboardIndex.DIRECTORY_NAME));
+        writer = new Thread(this::run, "score-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the service of the scores under {@code user.dir}, whose pending scores are flushed at shutdown.
+     * @return ScoreService object.
+     */
+    public static synchronized ScoreService getDefault() {
+        if (defaultService == null) {
+            var service = new ScoreService(new ScoreLog(Path.of(System.getProperty("user.dir"))));
+            Runtime.getRuntime().addShutdownHook(new Thread(service::close, "score-writer-shutdown"));
+            defaultService = service;
+        }
+        return defaultService;
+    }
+
+    /**
+     * Queues a score to be saved.
+     * @param score .
+     * @return Future completed once the score is on the disk.
+     */
+    public CompletableFuture<Void> submit(Score score) {
+        var done = new CompletableFuture<Void>();
+        enqueue(new Write(score, done), done);
+        return done;
+    }
+
+    /**
+     * Reads every score, including the ones submitted before.
+     * @return Future of the list of scores, newest first.
+     */
+    public CompletableFuture<List<Score>> readAll() {
+        return read(scoreLog::readAll);
+    }
+
+    /**
+     * Returns the best scores of every player, including the ones submitted before.
+     * @return Future of the list of at most {@value LeaderboardIndex#TOP_K} scores, fewest steps first.
+     */
+    public CompletableFuture<List<Score>> topScores() {
+        return read(() -> {
+            if (index.exists()) {
+                try {
+                    return index.getTopScores();
+                } catch (NoSuchFileException e) {
+                    Logger.debug("Leaderboard index deleted while reading, ranking the score log");
+                }
+            }
+            return LeaderboardIndex.topScores(scoresInOrder());
+        });
+    }
+
+    /**
+     * Returns the best scores of a player, including the ones submitted before.
+     * @param name Name of the player.
+     * @return Future of the list of at most {@value LeaderboardIndex#TOP_K} scores, fewest steps first.
+     */
+    public CompletableFuture<List<Score>> topScores(String name) {
+        return read(() -> index.exists()
+                ? index.getTopScores(name)
+                : LeaderboardIndex.topScores(scoresInOrder(), name));
+    }
+
+    /**
+     * Opens a paged view of every score, including the ones submitted before.
+     * @return Future of the pager, to be closed by the caller.
+     */
+    public CompletableFuture<ScorePager> openPager() {
+        return read(scoreLog::openPager);
+    }
+
+    /**
+     * Decodes the page of a pager holding the given score, so it is then {@link ScorePager#getIfLoaded(int) in
+     * memory}.
+     * @param pager Pager opened by {@link #openPager()}.
+     * @param index Index of the score, the newest one having index 0.
+     * @return Future of the score.
+     */
+    public CompletableFuture<Score> loadPage(ScorePager pager, int index) {
+        return read(() -> pager.get(index));
+    }
+
+    private <T> CompletableFuture<T> read(Query<T> query) {
+        var result = new CompletableFuture<T>();
+        enqueue(new Read<>(query, result), result);
+        return result;
+    }
+
+    private synchronized void enqueue(Request request, CompletableFuture<?> future) {
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("Score service is closed"));
+        } else {
+            queue.add(request);
+        }
+    }
+
+    /**
+     * Saves every queued score and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(new Stop());
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(MAX_BATCH);
+        List<Write> writes = new ArrayList<>(MAX_BATCH);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                for (var request : batch) {
+                    if (request instanceof Write write) {
+                        writes.add(write);
+                        continue;
+                    }
+                    flush(writes);
+                    if (request instanceof Read<?> read) {
+                        read(read);
+                    } else if (request instanceof Stop) {
+                        return;
+                    }
+                }
+                flush(writes);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Logger.error("Score writer interrupted, {} requests dropped", queue.size());
+        }
+    }
+
+    private void flush(List<Write> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        List<Score> scores = new ArrayList<>(writes.size());
+        for (var write : writes) {
+            scores.add(write.score());
+        }
+        try {
+            scoreLog.appendAll(scores, () -> updateIndex(scores));
+            for (var write : writes) {
+                write.done().complete(null);
+            }
+        } catch (IOException | RuntimeException e) {
+            Logger.error(e, "Saving {} scores failed", scores.size());
+            for (var write : writes) {
+                write.done().completeExceptionally(e);
+            }
+            return;
+        } finally {
+            writes.clear();
+        }
+    }
+
+    /**
+     * Adds the scores just appended to the index, called while holding the lock of the score log, so the index of
+     * every process sharing the directory stays complete. Only the global list and the lists of the players of the
+     * scores are read and written.
+     * @param scores .
+     */
+    private void updateIndex(List<Score> scores) {
+        try {
+            if (index.exists()) {
+                index.addAll(scores);
+            } else {
+                // an index rebuilt from the log already contains the scores just appended
+                index.rebuild(scoresInOrder());
+            }
+        } catch (IOException | RuntimeException e) {
+            Logger.error(e, "Updating the leaderboard index failed, it will be rebuilt");
+            try {
+                index.invalidate();
+            } catch (IOException deleteException) {
+                Logger.error(deleteException, "Deleting the leaderboard index failed");
+            }
+        }
+    }
+
+    private List<Score> scoresInOrder() throws IOException {
+        var scores = scoreLog.readAll();
+        Collections.reverse(scores);
+        return scores;
+    }
+
+    private <T> void read(Read<T> read) {
+        try {
+            read.result().complete(read.query().run());
+        } catch (IOException | RuntimeException e) {
+            read.result().completeExceptionally(e);
+        }
+    }
+
+}
@@ -9,38 +9,89 @@ import java.util.*;
  */
 public class GameModel {
 
-    public static int BOARD_SIZE = 7;
+    /**
+     * Size of the board of models created from dots only.
+     */
+    public static final int BOARD_SIZE = 7;
+
+    /**
+     * Level id of models not created from a level.
+     */
+    public static final int NO_LEVEL = -1;
+
+    private final int levelId;
 
     private final Dot [] dots;
 
-    private final ArrayList<Wall> walls = new ArrayList<>();
+    private final RuleEngine engine;
+
+    private final long startState;
+
+    private long state;
+
+    private final ZobristKeys zobristKeys;
+
+    private long zobristKey;
+
+    private final List<MoveListener> moveListeners = new ArrayList<>();
+
+    private final MoveHistory history = new MoveHistory();
 
     /**
-     * Initiates a starting position with a RED and BLUE dots.
+     * Initiates the starting position of the built-in level.
      */
     public GameModel() {
-        this(new Dot(DotType.RED, new Position(0, 4)),
-                new Dot(DotType.BLUE, new Position(6, 2)));
-        createWallPhysics();
+        this(LevelLoader.builtIn());
+    }
+
+    /**
+     * Initiates the starting position of a level, sharing its rule engine.
+     * @param level .
+     */
+    public GameModel(Level level) {
+        this(level.getId(), level.getEngine(), new Dot(DotType.RED, level.getRed()),
+                new Dot(DotType.BLUE, level.getBlue()));
     }
 
     public GameModel(Dot... dots) {
-        checkDots(dots);
+        this(WallIndex.empty(BOARD_SIZE), dots);
+    }
+
+    /**
+     * Initiates a starting position with the given walls and dots, on a board of the size of the walls.
+     * @param walls Index of the walls.
+     * @param dots .
+     */
+    public GameModel(WallIndex walls, Dot... dots) {
+        this(NO_LEVEL, new RuleEngine(walls), dots);
+    }
+
+    private GameModel(int levelId, RuleEngine engine, Dot... dots) {
+        checkDots(engine.getSize(), dots);
+        this.levelId = levelId;
         this.dots = dots.clone();
+        this.engine = engine;
+        state = engine.state(engine.cell(dots[0].getPosition()), engine.cell(dots[1].getPosition()));
+        startState = state;
+        zobristKeys = ZobristKeys.of(engine.getSize());
+        zobristKey = zobristKeys.key(state);
     }
 
 
     /**
      * Determines if a given state is valid.
+     * @param size .
      * @param dots .
      */
-    private void checkDots(Dot[] dots) {
+    private void checkDots(int size, Dot[] dots) {
         if (dots.length != 2) {
             throw new IllegalArgumentException();
         }
         var seen = new HashSet<Position>();
         for (var dot : dots) {
-            if (! isOnBoard(dot.getPosition()) || seen.contains(dot.getPosition())) {
+            var position = dot.getPosition();
+            if (position.row() < 0 || position.row() >= size || position.col() < 0 || position.col() >= size
+                    || seen.contains(position)) {
                 throw new IllegalArgumentException();
             }
             seen.add(dot.getPosition());
@@ -74,38 +125,7 @@ public class GameModel {
      */
 
     public boolean isValidMove(PlayerDirection direction) {
-
-        var inverseDirectionRowChange = direction.getRowChange()*-1;
-        var inverseDirectionColChange = direction.getColChange()*-1;
-
-        var inverseDirection = PlayerDirection.of(inverseDirectionRowChange,inverseDirectionColChange);
-
-        Position oldPosition = dots[0].getPosition();
-        Position newPosition = dots[0].getPosition().moveTo(direction);
-        Position oldPosition2 = dots[1].getPosition();
-        Position newPosition2 = dots[1].getPosition().moveTo(inverseDirection);
-        if (! isOnBoard(newPosition)) {
-            return false;
-        }
-        if (! isOnBoard(newPosition2)) {
-            return false;
-        }
-        for (var dot : dots) {
-            if (dot.getPosition().equals(newPosition)) {
-                return false;
-            }
-        }
-        for (var w : walls){
-            if (w.containsAll(oldPosition,newPosition)) {
-                return false;
-            }
-        }
-        for (var w : walls){
-            if (w.containsAll(oldPosition2,newPosition2)) {
-                return false;
-            }
-        }
-        return true;
+        return engine.isValidMove(state, direction);
     }
 
     /**
@@ -115,8 +135,9 @@ public class GameModel {
 
     public Set<PlayerDirection> getValidMoves() {
         EnumSet<PlayerDirection> validMoves = EnumSet.noneOf(PlayerDirection.class);
+        int mask = engine.getValidMoves(state);
         for (var direction : PlayerDirection.values()) {
-            if (isValidMove(direction)) {
+            if ((mask & 1 << direction.ordinal()) != 0) {
                 validMoves.add(direction);
             }
         }
@@ -124,12 +145,122 @@ public class GameModel {
     }
 
     /**
-     * Moves the given dot according to the given direction.
-     * @param direction .
+     * Moves both dots as one step, then publishes a single {@link MoveEvent} to the move listeners.
+     * @param redDirection .
+     * @param blueDirection Must be the inverse of the red dot's direction.
+     * @throws IllegalArgumentException if the move is not valid, in which case the state, the history and the
+     * listeners are left untouched.
      */
     public void move(PlayerDirection redDirection, PlayerDirection blueDirection) {
+        if (blueDirection != redDirection.inverse() || !isValidMove(redDirection)) {
+            throw new IllegalArgumentException("Invalid move: " + redDirection + ", " + blueDirection);
+        }
+        history.push(redDirection.ordinal());
+        apply(redDirection, blueDirection);
+    }
+
+    /**
+     * Takes back the last move, publishing it as a {@link MoveEvent}.
+     * @return Whether there was a move to take back.
+     */
+    public boolean undo() {
+        if (!history.canUndo()) {
+            return false;
+        }
+        var direction = PlayerDirection.fromCode(history.undo());
+        apply(direction.inverse(), direction);
+        return true;
+    }
+
+    /**
+     * Makes the last move taken back again, publishing it as a {@link MoveEvent}.
+     * @return Whether there was a move to make again.
+     */
+    public boolean redo() {
+        if (!history.canRedo()) {
+            return false;
+        }
+        var direction = PlayerDirection.fromCode(history.redo());
+        apply(direction, direction.inverse());
+        return true;
+    }
+
+    /**
+     * @return Number of moves made since the start, not counting the ones taken back.
+     */
+    public int getMoveCount() {
+        return history.size();
+    }
+
+    /**
+     * @param index Index of a move made, not counting the ones taken back.
+     * @return Direction code of the red dot's move.
+     */
+    public int getMove(int index) {
+        if (index >= history.size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return history.get(index);
+    }
+
+    /**
+     * Returns the state the game started from, packed by the rule engine.
+     * @return Packed state before the first move.
+     */
+    public long getStartState() {
+        return startState;
+    }
+
+    private void apply(PlayerDirection redDirection, PlayerDirection blueDirection) {
+        long oldState = state;
+        state = engine.move(state, redDirection.ordinal(), blueDirection.ordinal());
+        zobristKey = zobristKeys.move(zobristKey, oldState, redDirection.ordinal());
         dots[0].moveTo(redDirection);
         dots[1].moveTo(blueDirection);
+        var event = new MoveEvent(oldState, state, engine.isWon(state));
+        for (var listener : List.copyOf(moveListeners)) {
+            listener.moved(event);
+        }
+    }
+
+    /**
+     * Adds a listener called once per move, after both dots have moved.
+     * @param listener .
+     */
+    public void addMoveListener(MoveListener listener) {
+        moveListeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Removes a move listener.
+     * @param listener .
+     */
+    public void removeMoveListener(MoveListener listener) {
+        moveListeners.remove(listener);
+    }
+
+    /**
+     * Returns the rule engine the model delegates to.
+     * @return RuleEngine of the board.
+     */
+    public RuleEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Returns the current state packed by the rule engine.
+     * @return Packed state of the dots.
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Returns the Zobrist key of the current state, kept up to date move by move.
+     * @return Key of the state by the {@link ZobristKeys} of the board size.
+     */
+    public long getZobristKey() {
+        return zobristKey;
     }
 
     /**
@@ -142,13 +273,20 @@ public class GameModel {
     }
 */
     /**
-     * Returns a
+     * Returns whether the board of this model contains the given position.
      * @param position .
      * @return Boolean depending on whether the board contains the given position.
      */
-    public static boolean isOnBoard(Position position) {
-        return 0 <= position.row() && position.row() < BOARD_SIZE
-                && 0 <= position.col() && position.col() < BOARD_SIZE;
+    public boolean isOnBoard(Position position) {
+        return 0 <= position.row() && position.row() < engine.getSize()
+                && 0 <= position.col() && position.col() < engine.getSize();
+    }
+
+    /**
+     * @return Id of the level the game is played on, or {@value #NO_LEVEL}.
+     */
+    public int getLevelId() {
+        return levelId;
     }
 
     /**
@@ -175,38 +313,6 @@ public class GameModel {
         return joiner.toString();
     }
 
-    /**
-     * Creating barriers between squares according the diagram.
-     */
-    private void createWallPhysics () {
-        walls.add(new Wall(new Position(1,2),new Position(1,3)));
-        walls.add(new Wall(new Position(0,3),new Position(1,3)));
-        walls.add(new Wall(new Position(1,3),new Position(2,3)));
-
-        walls.add(new Wall(new Position(2,1),new Position(2,2)));
-        walls.add(new Wall(new Position(2,2),new Position(3,2)));
-
-        walls.add(new Wall(new Position(3,1),new Position(4,1)));
-
-        walls.add(new Wall(new Position(2,4),new Position(3,4)));
-        walls.add(new Wall(new Position(3,3),new Position(3,4)));
-        walls.add(new Wall(new Position(3,4),new Position(4,4)));
-
-        walls.add(new Wall(new Position(4,2),new Position(4,3)));
-        walls.add(new Wall(new Position(4,3),new Position(5,3)));
-
-        walls.add(new Wall(new Position(5,5),new Position(5,6)));
-        walls.add(new Wall(new Position(4,6),new Position(5,6)));
-
-        walls.add(new Wall(new Position(6,0),new Position(6,1)));
-
-        walls.add(new Wall(new Position(6,3),new Position(5,3)));
-        walls.add(new Wall(new Position(6,2),new Position(6,3)));
-
-        //walls.add(new Wall(new Position(6,0),new Position(6,4)));
-
-    }
-
     public static void main(String[] args) {
         GameModel model = new GameModel();
         System.out.println(model);
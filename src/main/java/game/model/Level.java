@@ -0,0 +1,101 @@
+package game.model;
+
+/**
+ * Immutable compiled level: its board with the index of the walls and the rule engine built on it, with the
+ * {@link MoveTable} of the board, and the starting squares of the dots. Every game of the level shares the same
+ * rule engine.
+ */
+public final class Level {
+
+    private final int id;
+
+    private final String name;
+
+    private final RuleEngine engine;
+
+    private final Position red;
+
+    private final Position blue;
+
+    private final long startState;
+
+    /**
+     * Compiles a level.
+     * @param id .
+     * @param name .
+     * @param walls Index of the walls, giving the size of the board.
+     * @param red Starting square of the red dot.
+     * @param blue Starting square of the blue dot.
+     * @throws IllegalArgumentException if a dot is not on the board or the dots start on the same square.
+     */
+    public Level(int id, String name, WallIndex walls, Position red, Position blue) {
+        this(id, name, RuleEngine.compiled(walls), red, blue);
+    }
+
+    /**
+     * Compiles a level on the board of an existing rule engine.
+     * @param id .
+     * @param name .
+     * @param engine .
+     * @param red Starting square of the red dot.
+     * @param blue Starting square of the blue dot.
+     * @throws IllegalArgumentException if a dot is not on the board or the dots start on the same square.
+     */
+    public Level(int id, String name, RuleEngine engine, Position red, Position blue) {
+        this.id = id;
+        this.name = name;
+        this.engine = engine;
+        if (!isOnBoard(red) || !isOnBoard(blue) || red.equals(blue)) {
+            throw new IllegalArgumentException("Invalid starting squares: " + red + ", " + blue);
+        }
+        this.red = red;
+        this.blue = blue;
+        startState = engine.state(engine.cell(red), engine.cell(blue));
+    }
+
+    private boolean isOnBoard(Position position) {
+        return 0 <= position.row() && position.row() < engine.getSize()
+                && 0 <= position.col() && position.col() < engine.getSize();
+    }
+
+    /**
+     * @return A new game of the level in its starting position.
+     */
+    public GameModel newGame() {
+        return new GameModel(this);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        return engine.getSize();
+    }
+
+    public RuleEngine getEngine() {
+        return engine;
+    }
+
+    public Position getRed() {
+        return red;
+    }
+
+    public Position getBlue() {
+        return blue;
+    }
+
+    public long getStartState() {
+        return startState;
+    }
+
+    @Override
+    public String toString() {
+        return "Level[id=" + id + ", name=" + name + ", size=" + getSize() + "]";
+    }
+
+}
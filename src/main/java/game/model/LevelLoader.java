@@ -0,0 +1,174 @@
+package game.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads levels from JSON files, compiling each of them once.
+ *
+ * <p>A level file holds the id and the name of the level, the size of the board, the starting squares of the
+ * red and the blue dot as {@code [row, col]}, and the walls as {@code [row1, col1, row2, col2]} between two
+ * neighbouring squares. Compiled levels are cached, so restarting a game or switching back to a level does not
+ * read or parse the file again.</p>
+ */
+public final class LevelLoader {
+
+    /**
+     * Classpath resource of the built-in level.
+     */
+    public static final String BUILT_IN = "/levels/figure39.json";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Map<String, Level> CACHE = new ConcurrentHashMap<>();
+
+    private LevelLoader() {
+    }
+
+    private record LevelFile(int id, String name, int size, int[] red, int[] blue, List<int[]> walls) {
+
+        @JsonCreator
+        LevelFile(@JsonProperty("id") int id, @JsonProperty("name") String name, @JsonProperty("size") int size,
+                  @JsonProperty("red") int[] red, @JsonProperty("blue") int[] blue,
+                  @JsonProperty("walls") List<int[]> walls) {
+            this.id = id;
+            this.name = name;
+            this.size = size;
+            this.red = red;
+            this.blue = blue;
+            this.walls = walls == null ? List.of() : walls;
+        }
+    }
+
+    /**
+     * @return The built-in level.
+     */
+    public static Level builtIn() {
+        return resource(BUILT_IN);
+    }
+
+    /**
+     * Returns the level of a classpath resource.
+     * @param name Absolute name of the resource.
+     * @return Level object.
+     * @throws IllegalArgumentException if there is no such resource or it is not a valid level.
+     */
+    public static Level resource(String name) {
+        return CACHE.computeIfAbsent("resource:" + name, key -> {
+            try (InputStream input = LevelLoader.class.getResourceAsStream(name)) {
+                if (input == null) {
+                    throw new IllegalArgumentException("No level " + name);
+                }
+                return compile(OBJECT_MAPPER.readValue(input, LevelFile.class));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid level " + name, e);
+            }
+        });
+    }
+
+    /**
+     * Returns the level of a file.
+     * @param file .
+     * @return Level object.
+     * @throws UncheckedIOException if the file can not be read.
+     * @throws IllegalArgumentException if the file is not a valid level.
+     */
+    public static Level file(Path file) {
+        return CACHE.computeIfAbsent("file:" + file.toAbsolutePath().normalize(), key -> {
+            try (InputStream input = Files.newInputStream(file)) {
+                return compile(OBJECT_MAPPER.readValue(input, LevelFile.class));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid level " + file, e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Parses a level from its JSON text, without caching it.
+     * @param json .
+     * @return Level object.
+     * @throws IllegalArgumentException if the text is not a valid level.
+     */
+    public static Level parse(String json) {
+        try {
+            return compile(OBJECT_MAPPER.readValue(json, LevelFile.class));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid level", e);
+        }
+    }
+
+    /**
+     * Returns the JSON text of a level, in the format read by the loader.
+     * @param level .
+     * @return JSON text.
+     */
+    public static String toJson(Level level) {
+        var engine = level.getEngine();
+        List<int[]> walls = new ArrayList<>();
+        for (int cell = 0; cell < engine.getCellCount(); cell++) {
+            // every wall is the right or the bottom side of exactly one square
+            for (var direction : new PlayerDirection[] {PlayerDirection.RIGHT, PlayerDirection.DOWN}) {
+                if (engine.getWalls().isBlocked(cell, direction.ordinal())) {
+                    var from = engine.position(cell);
+                    var to = from.moveTo(direction);
+                    walls.add(new int[] {from.row(), from.col(), to.row(), to.col()});
+                }
+            }
+        }
+        var file = new LevelFile(level.getId(), level.getName(), level.getSize(),
+                new int[] {level.getRed().row(), level.getRed().col()},
+                new int[] {level.getBlue().row(), level.getBlue().col()}, walls);
+        try {
+            return OBJECT_MAPPER.writeValueAsString(file);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes a level to a file in the format read by the loader.
+     * @param level .
+     * @param file .
+     * @throws IOException if the file can not be written.
+     */
+    public static void write(Level level, Path file) throws IOException {
+        Files.writeString(file, toJson(level));
+    }
+
+    private static Level compile(LevelFile level) {
+        if (level.size() <= 0) {
+            throw new IllegalArgumentException("Invalid board size " + level.size());
+        }
+        var walls = WallIndex.builder(level.size());
+        for (var wall : level.walls()) {
+            if (wall.length != 4) {
+                throw new IllegalArgumentException("A wall needs 4 coordinates: " + Arrays.toString(wall));
+            }
+            walls.add(new Position(wall[0], wall[1]), new Position(wall[2], wall[3]));
+        }
+        return new Level(level.id(), level.name(), walls.build(), position(level.red()), position(level.blue()));
+    }
+
+    private static Position position(int[] coordinates) {
+        if (coordinates == null || coordinates.length != 2) {
+            throw new IllegalArgumentException("A square needs 2 coordinates");
+        }
+        return new Position(coordinates[0], coordinates[1]);
+    }
+
+}
@@ -0,0 +1,10 @@
+package game.model;
+
+/**
+ * Event published once per move, after both dots have moved.
+ * @param oldState Packed state before the move.
+ * @param newState Packed state after the move.
+ * @param won Whether the dots met.
+ */
+public record MoveEvent(long oldState, long newState, boolean won) {
+}
@@ -0,0 +1,93 @@
+package game.model;
+
+import java.util.Arrays;
+
+/**
+ * Unbounded undo and redo history of the moves of a game, storing every move as its 2-bit direction code.
+ *
+ * <p>Only the direction of the red dot is stored, since the blue dot always moves in the inverse direction, so
+ * 32 moves fit in a {@code long}. The moves after the current one are kept for redo until a new move is
+ * made.</p>
+ */
+public class MoveHistory {
+
+    private static final int CODES_PER_WORD = 32;
+
+    private long[] words = new long[1];
+
+    /**
+     * Number of moves made, which is the index of the next move.
+     */
+    private int size;
+
+    /**
+     * Number of moves recorded, including the undone ones that can be redone.
+     */
+    private int limit;
+
+    /**
+     * Records a move, dropping the moves that could be redone.
+     * @param direction Direction code of the red dot's move.
+     */
+    public void push(int direction) {
+        if (size == words.length * CODES_PER_WORD) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        int shift = (size % CODES_PER_WORD) * 2;
+        int word = size / CODES_PER_WORD;
+        words[word] = words[word] & ~(3L << shift) | (long) direction << shift;
+        size++;
+        limit = size;
+    }
+
+    /**
+     * Steps back one move.
+     * @return Direction code of the undone move.
+     * @throws IllegalStateException if there is no move to undo.
+     */
+    public int undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("No move to undo");
+        }
+        return get(--size);
+    }
+
+    /**
+     * Steps forward one undone move.
+     * @return Direction code of the redone move.
+     * @throws IllegalStateException if there is no move to redo.
+     */
+    public int redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("No move to redo");
+        }
+        return get(size++);
+    }
+
+    public boolean canUndo() {
+        return size > 0;
+    }
+
+    public boolean canRedo() {
+        return size < limit;
+    }
+
+    /**
+     * @return Number of moves made.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index Index of a recorded move.
+     * @return Direction code of the move.
+     */
+    public int get(int index) {
+        if (index < 0 || index >= limit) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (int) (words[index / CODES_PER_WORD] >>> (index % CODES_PER_WORD) * 2) & 3;
+    }
+
+}
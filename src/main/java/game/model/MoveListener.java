@@ -0,0 +1,15 @@
+package game.model;
+
+/**
+ * Listener of the moves of a {@link GameModel}.
+ */
+@FunctionalInterface
+public interface MoveListener {
+
+    /**
+     * Called after both dots have moved.
+     * @param event .
+     */
+    void moved(MoveEvent event);
+
+}
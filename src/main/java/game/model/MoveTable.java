@@ -0,0 +1,73 @@
+package game.model;
+
+import java.util.stream.IntStream;
+
+/**
+ * Compiled table of the valid moves of every state of a board, so move generation is an array read instead of
+ * checking the walls and the board edges of both dots in four directions.
+ *
+ * <p>The valid moves of a state take 4 bits, two states to a byte, the even state in the low nibble. No successor
+ * needs to be stored: a move changes the packed state by a constant per direction, since the red dot moves to
+ * the neighbouring cell and the blue dot to the opposite one.</p>
+ */
+public final class MoveTable {
+
+    /**
+     * Largest number of states a table is compiled for, taking half as many bytes.
+     */
+    public static final long MAX_STATES = 1L << 26;
+
+    private final byte[] masks;
+
+    private final long[] deltas;
+
+    private MoveTable(byte[] masks, long[] deltas) {
+        this.masks = masks;
+        this.deltas = deltas;
+    }
+
+    /**
+     * Compiles the table of a board in parallel.
+     * @param engine .
+     * @return MoveTable object.
+     * @throws IllegalArgumentException if the board has more than {@value #MAX_STATES} states.
+     */
+    static MoveTable build(RuleEngine engine) {
+        long stateCount = engine.getStateCount();
+        if (stateCount > MAX_STATES) {
+            throw new IllegalArgumentException("Too many states for a move table: " + stateCount);
+        }
+        var masks = new byte[(int) ((stateCount + 1) / 2)];
+        IntStream.range(0, masks.length).parallel().forEach(i -> {
+            long even = 2L * i;
+            int mask = engine.computeValidMoves(even);
+            if (even + 1 < stateCount) {
+                mask |= engine.computeValidMoves(even + 1) << 4;
+            }
+            masks[i] = (byte) mask;
+        });
+        var deltas = new long[4];
+        for (int direction = 0; direction < 4; direction++) {
+            deltas[direction] = engine.getDelta(direction);
+        }
+        return new MoveTable(masks, deltas);
+    }
+
+    /**
+     * @param state .
+     * @return Bitmask with bit {@code 1 << code} set for every valid direction.
+     */
+    public int getValidMoves(long state) {
+        return (masks[(int) (state >>> 1)] >>> ((int) (state & 1) << 2)) & 0x0F;
+    }
+
+    /**
+     * @param state .
+     * @param direction Direction code of the red dot's move.
+     * @return State after the move, or {@code -1} if the move is not valid.
+     */
+    public long successor(long state, int direction) {
+        return (getValidMoves(state) & 1 << direction) != 0 ? state + deltas[direction] : -1;
+    }
+
+}
@@ -10,6 +10,8 @@ public enum PlayerDirection implements Direction {
     DOWN(1, 0),
     LEFT(0, -1);
 
+    private static final PlayerDirection[] VALUES = values();
+
     private final int rowChange;
     private final int colChange;
 
@@ -28,6 +30,14 @@ public enum PlayerDirection implements Direction {
         return colChange;
     }
 
+    /**
+     * Returns the direction pointing the opposite way, which is the direction the blue dot moves in.
+     * @return Inverse direction.
+     */
+    public PlayerDirection inverse() {
+        return VALUES[(ordinal() + 2) & 3];
+    }
+
     /**
      *
      * @param rowChange .
@@ -35,14 +45,33 @@ public enum PlayerDirection implements Direction {
      * @return Direction object (The defined name of direction by recieving col and row change).
      */
     public static PlayerDirection of(int rowChange, int colChange) {
-        for (var direction : values()) {
-            if (direction.rowChange == rowChange && direction.colChange == colChange) {
-                return direction;
+        if (rowChange == 0) {
+            if (colChange == 1) {
+                return RIGHT;
+            }
+            if (colChange == -1) {
+                return LEFT;
+            }
+        } else if (colChange == 0) {
+            if (rowChange == -1) {
+                return UP;
+            }
+            if (rowChange == 1) {
+                return DOWN;
             }
         }
         throw new IllegalArgumentException();
     }
 
+    /**
+     * Returns the direction with the given code, as used by {@link RuleEngine}.
+     * @param code Ordinal of the direction.
+     * @return Direction object.
+     */
+    public static PlayerDirection fromCode(int code) {
+        return VALUES[code];
+    }
+
     public static void main(String[] args) {
         System.out.println(of(1, -1));
     }
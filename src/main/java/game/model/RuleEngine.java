@@ -0,0 +1,289 @@
+package game.model;
+
+import java.util.List;
+
+/**
+ * Headless, allocation-free implementation of the rules of the game.
+ *
+ * <p>A square of the board is identified by its cell index {@code row * size + col}, and the state of the
+ * game (the squares of the red and the blue dot) is packed into a single {@code long}
+ * {@code redCell * cellCount + blueCell}. Directions are identified by their code, the ordinal of the
+ * corresponding {@link PlayerDirection}, and sets of directions by a bitmask of {@code 1 << code}.</p>
+ */
+public class RuleEngine {
+
+    private static final int[] ROW_CHANGE = {-1, 0, 1, 0};
+    private static final int[] COL_CHANGE = {0, 1, 0, -1};
+
+    private final int size;
+
+    private final int cellCount;
+
+    private final WallIndex walls;
+
+    /**
+     * Change of the packed state by a move, by direction code of the red dot.
+     */
+    private final long[] deltas = new long[4];
+
+    private final MoveTable moveTable;
+
+    /**
+     * Creates a rule engine for the board of the given wall index.
+     * @param walls Walls placed on the board.
+     */
+    public RuleEngine(WallIndex walls) {
+        this(walls, false);
+    }
+
+    private RuleEngine(WallIndex walls, boolean compileMoves) {
+        this.size = walls.getSize();
+        this.cellCount = size * size;
+        this.walls = walls;
+        for (int direction = 0; direction < 4; direction++) {
+            // the blue dot moves to the opposite cell, so its cell index changes by the inverse amount
+            long cellDelta = ROW_CHANGE[direction] * size + COL_CHANGE[direction];
+            deltas[direction] = cellDelta * (cellCount - 1);
+        }
+        moveTable = compileMoves ? MoveTable.build(this) : null;
+    }
+
+    /**
+     * Creates a rule engine with a compiled {@link MoveTable}, if the board has at most
+     * {@value MoveTable#MAX_STATES} states, for boards searched or played many times.
+     * @param walls Walls placed on the board.
+     * @return RuleEngine object.
+     */
+    public static RuleEngine compiled(WallIndex walls) {
+        long size = walls.getSize();
+        return new RuleEngine(walls, size * size * size * size <= MoveTable.MAX_STATES);
+    }
+
+    /**
+     * Creates a rule engine for a square board of the given size.
+     * @param size Number of rows and columns of the board.
+     * @param walls Walls placed on the board.
+     */
+    public RuleEngine(int size, List<Wall> walls) {
+        this(buildIndex(size, walls));
+    }
+
+    private static WallIndex buildIndex(int size, List<Wall> walls) {
+        var builder = WallIndex.builder(size);
+        for (var wall : walls) {
+            wall.addTo(builder);
+        }
+        return builder.build();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public WallIndex getWalls() {
+        return walls;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * @return The compiled move table, or {@code null} if the engine has none.
+     */
+    public MoveTable getMoveTable() {
+        return moveTable;
+    }
+
+    /**
+     * @return Number of distinct packed states, every state is smaller than this value.
+     */
+    public long getStateCount() {
+        return (long) cellCount * cellCount;
+    }
+
+    /**
+     * @param position .
+     * @return Cell index of the given position.
+     */
+    public int cell(Position position) {
+        return position.row() * size + position.col();
+    }
+
+    /**
+     * @param cell .
+     * @return Position object of the given cell index.
+     */
+    public Position position(int cell) {
+        return new Position(cell / size, cell % size);
+    }
+
+    /**
+     * Packs the positions of the two dots into a single state.
+     * @param redCell Cell index of the red dot.
+     * @param blueCell Cell index of the blue dot.
+     * @return Packed state.
+     */
+    public long state(int redCell, int blueCell) {
+        return (long) redCell * cellCount + blueCell;
+    }
+
+    /**
+     * @param state .
+     * @return Cell index of the red dot in the given state.
+     */
+    public int redCell(long state) {
+        return (int) (state / cellCount);
+    }
+
+    /**
+     * @param state .
+     * @return Cell index of the blue dot in the given state.
+     */
+    public int blueCell(long state) {
+        return (int) (state % cellCount);
+    }
+
+    /**
+     * Determines if the given state satisfies the winning condition, when both dots are on the same square.
+     * @param state .
+     * @return Boolean according to the winning condition.
+     */
+    public boolean isWon(long state) {
+        return redCell(state) == blueCell(state);
+    }
+
+    /**
+     * Determines if the squares of the dots allow them to meet at all, walls aside: a move changes the
+     * differences of their rows and columns by 0 or 2, so both have to be even.
+     * @param state .
+     * @return Boolean depending on the parity of the differences.
+     */
+    public boolean canMeet(long state) {
+        int red = redCell(state);
+        int blue = blueCell(state);
+        return ((red / size - blue / size) & 1) == 0 && ((red % size - blue % size) & 1) == 0;
+    }
+
+    /**
+     * @param state .
+     * @return Manhattan distance between the squares of the dots.
+     */
+    public int dotDistance(long state) {
+        int red = redCell(state);
+        int blue = blueCell(state);
+        return Math.abs(red / size - blue / size) + Math.abs(red % size - blue % size);
+    }
+
+    /**
+     * Returns the neighbouring cell in the given direction.
+     * @param cell .
+     * @param direction Direction code.
+     * @return Cell index of the neighbour, or {@code -1} if it is not on the board.
+     */
+    public int neighbour(int cell, int direction) {
+        int row = cell / size + ROW_CHANGE[direction];
+        int col = cell % size + COL_CHANGE[direction];
+        if (row < 0 || row >= size || col < 0 || col >= size) {
+            return -1;
+        }
+        return row * size + col;
+    }
+
+    /**
+     * @param cell1 .
+     * @param cell2 .
+     * @return Boolean depending on whether a wall separates the two neighbouring cells.
+     */
+    public boolean isWallBetween(int cell1, int cell2) {
+        return walls.isWallBetween(cell1, cell2);
+    }
+
+    /**
+     * Determines the validity of moving the red dot in the given direction and the blue dot in the inverse one.
+     * @param state .
+     * @param direction Direction code of the red dot's move.
+     * @return Boolean according to validity of move.
+     */
+    public boolean isValidMove(long state, int direction) {
+        if (moveTable != null) {
+            return (moveTable.getValidMoves(state) & 1 << direction) != 0;
+        }
+        int red = redCell(state);
+        int blue = blueCell(state);
+        int newRed = neighbour(red, direction);
+        if (newRed < 0 || newRed == blue || walls.isBlocked(red, direction)) {
+            return false;
+        }
+        int inverse = inverse(direction);
+        return neighbour(blue, inverse) >= 0 && !walls.isBlocked(blue, inverse);
+    }
+
+    /**
+     * @param state .
+     * @param direction .
+     * @return Boolean according to validity of move.
+     */
+    public boolean isValidMove(long state, PlayerDirection direction) {
+        return isValidMove(state, direction.ordinal());
+    }
+
+    /**
+     * Returns every valid move in the given state.
+     * @param state .
+     * @return Bitmask with bit {@code 1 << code} set for every valid direction.
+     */
+    public int getValidMoves(long state) {
+        return moveTable != null ? moveTable.getValidMoves(state) : computeValidMoves(state);
+    }
+
+    int computeValidMoves(long state) {
+        int red = redCell(state);
+        int blue = blueCell(state);
+        int mask = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            int newRed = neighbour(red, direction);
+            int inverse = inverse(direction);
+            if (newRed >= 0 && newRed != blue && !walls.isBlocked(red, direction)
+                    && neighbour(blue, inverse) >= 0 && !walls.isBlocked(blue, inverse)) {
+                mask |= 1 << direction;
+            }
+        }
+        return mask;
+    }
+
+    long getDelta(int direction) {
+        return deltas[direction];
+    }
+
+    /**
+     * Moves the red dot in the given direction and the blue dot in the inverse one.
+     * The move is expected to be valid.
+     * @param state .
+     * @param direction Direction code of the red dot's move.
+     * @return State after the move.
+     */
+    public long move(long state, int direction) {
+        return state + deltas[direction];
+    }
+
+    /**
+     * Moves the dots independently of each other. The moves are expected to stay on the board.
+     * @param state .
+     * @param redDirection Direction code of the red dot's move.
+     * @param blueDirection Direction code of the blue dot's move.
+     * @return State after the move.
+     */
+    public long move(long state, int redDirection, int blueDirection) {
+        return state(neighbour(redCell(state), redDirection), neighbour(blueCell(state), blueDirection));
+    }
+
+    /**
+     * @param direction Direction code.
+     * @return Code of the inverse direction.
+     */
+    public static int inverse(int direction) {
+        return (direction + 2) & 3;
+    }
+
+}
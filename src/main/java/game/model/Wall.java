@@ -1,12 +1,11 @@
 package game.model;
 
-import java.util.ArrayList;
-
 /**
- * Class for placing walls on board.
+ * Class for placing walls on board, added to a {@link WallIndex} through its builder.
  */
 public class Wall {
-    private ArrayList walls;
+    private final Position pos1;
+    private final Position pos2;
 
     /**
      * Constructor for setting up physics of walls.
@@ -15,9 +14,8 @@ public class Wall {
      */
     public Wall(Position pos1, Position pos2) {
         if (pos1.equals(pos2.moveTo(PlayerDirection.UP)) || pos1.equals(pos2.moveTo(PlayerDirection.DOWN)) || pos1.equals(pos2.moveTo(PlayerDirection.RIGHT)) || pos1.equals(pos2.moveTo(PlayerDirection.LEFT))) {
-            walls = new ArrayList();
-            walls.add(pos1);
-            walls.add(pos2);
+            this.pos1 = pos1;
+            this.pos2 = pos2;
         }
         else{
             throw new IllegalArgumentException();
@@ -28,10 +26,33 @@ public class Wall {
     /**
      * @param pos1 .
      * @param pos2 .
-     * @return Returns true when both squares are in the list.
+     * @return Returns true when the wall separates the two squares.
      */
     public boolean containsAll(Position pos1, Position pos2) {
-        return walls.contains(pos1) && walls.contains(pos2);
+        return (this.pos1.equals(pos1) && this.pos2.equals(pos2)) || (this.pos1.equals(pos2) && this.pos2.equals(pos1));
+    }
+
+    /**
+     * Adds this wall to the given index builder.
+     * @param builder .
+     * @return The builder.
+     */
+    public WallIndex.Builder addTo(WallIndex.Builder builder) {
+        return builder.add(this);
+    }
+
+    /**
+     * @return One of the squares separated by the wall.
+     */
+    public Position getFirst() {
+        return pos1;
+    }
+
+    /**
+     * @return The other square separated by the wall.
+     */
+    public Position getSecond() {
+        return pos2;
     }
 
 }
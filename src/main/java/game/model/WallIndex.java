@@ -0,0 +1,259 @@
+package game.model;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Immutable index of the walls on a board, storing one bit per edge between neighbouring squares.
+ *
+ * <p>Bit {@code row * size + col} of the horizontal bitset is the edge below the square {@code (row, col)},
+ * and the same bit of the vertical bitset is the edge to the right of it.</p>
+ *
+ * <p>Only the views of a {@link Builder} change, for generators trying many boards on one thread.</p>
+ */
+public class WallIndex {
+
+    private final int size;
+
+    private final long[] horizontal;
+
+    private final long[] vertical;
+
+    private WallIndex(int size, long[] horizontal, long[] vertical) {
+        this.size = size;
+        this.horizontal = horizontal;
+        this.vertical = vertical;
+    }
+
+    /**
+     * Creates a builder for the walls of a board with the given size.
+     * @param size Number of rows and columns of the board.
+     * @return Builder object.
+     */
+    public static Builder builder(int size) {
+        return new Builder(size);
+    }
+
+    /**
+     * Returns an index without any walls.
+     * @param size Number of rows and columns of the board.
+     * @return WallIndex object.
+     */
+    public static WallIndex empty(int size) {
+        return builder(size).build();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Determines if a wall is on the given side of a square.
+     * @param cell Cell index of the square.
+     * @param direction Direction code of the side.
+     * @return Boolean depending on whether there is a wall on that side.
+     */
+    public boolean isBlocked(int cell, int direction) {
+        return switch (direction) {
+            case 0 -> cell >= size && isSet(horizontal, cell - size);
+            case 1 -> isSet(vertical, cell);
+            case 2 -> isSet(horizontal, cell);
+            case 3 -> cell > 0 && isSet(vertical, cell - 1);
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    /**
+     * @param position .
+     * @param direction .
+     * @return Boolean depending on whether there is a wall on the given side of the square.
+     */
+    public boolean isBlocked(Position position, PlayerDirection direction) {
+        return isBlocked(position.row() * size + position.col(), direction.ordinal());
+    }
+
+    /**
+     * @param cell1 .
+     * @param cell2 .
+     * @return Boolean depending on whether a wall separates the two neighbouring cells.
+     */
+    public boolean isWallBetween(int cell1, int cell2) {
+        int low = Math.min(cell1, cell2);
+        int high = Math.max(cell1, cell2);
+        if (high - low == size) {
+            return isSet(horizontal, low);
+        }
+        return high - low == 1 && isSet(vertical, low);
+    }
+
+    /**
+     * @return Number of walls in the index.
+     */
+    public int getWallCount() {
+        int count = 0;
+        for (var word : horizontal) {
+            count += Long.bitCount(word);
+        }
+        for (var word : vertical) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns a digest of the board size and the walls, identifying the board in files built for it.
+     * @return SHA-256 digest of 32 bytes.
+     */
+    public byte[] digest() {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            var buffer = ByteBuffer.allocate(8 * 1024);
+            buffer.putInt(size);
+            for (var bits : new long[][] {horizontal, vertical}) {
+                for (var word : bits) {
+                    if (buffer.remaining() < Long.BYTES) {
+                        digest.update(buffer.flip());
+                        buffer.clear();
+                    }
+                    buffer.putLong(word);
+                }
+            }
+            digest.update(buffer.flip());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java runtime has SHA-256
+            throw new AssertionError(e);
+        }
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & 1L << index) != 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WallIndex other)) {
+            return false;
+        }
+        return size == other.size && Arrays.equals(horizontal, other.horizontal)
+                && Arrays.equals(vertical, other.vertical);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * size + Arrays.hashCode(horizontal)) + Arrays.hashCode(vertical);
+    }
+
+    /**
+     * Builder collecting walls into a {@link WallIndex}.
+     */
+    public static class Builder {
+
+        private final int size;
+
+        private final long[] horizontal;
+
+        private final long[] vertical;
+
+        private Builder(int size) {
+            if (size <= 0) {
+                throw new IllegalArgumentException();
+            }
+            this.size = size;
+            int words = (int) (((long) size * size + 63) >>> 6);
+            horizontal = new long[words];
+            vertical = new long[words];
+        }
+
+        /**
+         * Adds a wall between two neighbouring squares.
+         * @param pos1 .
+         * @param pos2 .
+         * @return This builder.
+         */
+        public Builder add(Position pos1, Position pos2) {
+            return add(new Wall(pos1, pos2));
+        }
+
+        /**
+         * Adds the given wall.
+         * @param wall .
+         * @return This builder.
+         */
+        public Builder add(Wall wall) {
+            var first = wall.getFirst();
+            var second = wall.getSecond();
+            if (!isOnBoard(first) || !isOnBoard(second)) {
+                throw new IllegalArgumentException();
+            }
+            int row = Math.min(first.row(), second.row());
+            int col = Math.min(first.col(), second.col());
+            int index = row * size + col;
+            long[] bits = first.row() == second.row() ? vertical : horizontal;
+            bits[index >>> 6] |= 1L << index;
+            return this;
+        }
+
+        private boolean isOnBoard(Position position) {
+            return 0 <= position.row() && position.row() < size && 0 <= position.col() && position.col() < size;
+        }
+
+        /**
+         * Adds a wall below the given square.
+         * @param cell Cell index of a square above the last row.
+         * @return This builder.
+         */
+        public Builder addBelow(int cell) {
+            if (cell < 0 || cell >= size * (size - 1)) {
+                throw new IllegalArgumentException();
+            }
+            horizontal[cell >>> 6] |= 1L << cell;
+            return this;
+        }
+
+        /**
+         * Adds a wall to the right of the given square.
+         * @param cell Cell index of a square left of the last column.
+         * @return This builder.
+         */
+        public Builder addRightOf(int cell) {
+            if (cell < 0 || cell >= size * size || cell % size == size - 1) {
+                throw new IllegalArgumentException();
+            }
+            vertical[cell >>> 6] |= 1L << cell;
+            return this;
+        }
+
+        /**
+         * Removes every wall added.
+         * @return This builder.
+         */
+        public Builder clear() {
+            Arrays.fill(horizontal, 0L);
+            Arrays.fill(vertical, 0L);
+            return this;
+        }
+
+        /**
+         * @return WallIndex containing the added walls.
+         */
+        public WallIndex build() {
+            return new WallIndex(size, horizontal.clone(), vertical.clone());
+        }
+
+        /**
+         * Returns an index sharing the bits of this builder, so it and the rule engines on it see every later
+         * change. It must only be used by the thread changing the builder.
+         * @return WallIndex of the walls of this builder.
+         */
+        public WallIndex view() {
+            return new WallIndex(size, horizontal, vertical);
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package game.model;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zobrist hash keys of the states of a board size: a random 64-bit key per square for each dot, the key of a
+ * state being the exclusive or of the keys of the squares of its dots. A move changes the key by the keys of the
+ * squares the dots leave and enter, so searches keep the key of the current state up to date with four table
+ * reads per move, and further parts of a state can be hashed in by more key tables.
+ *
+ * <p>Keys are generated from a fixed seed and cached per board size, so the keys of a state are the same in
+ * every run and on every board of the same size.</p>
+ */
+public final class ZobristKeys {
+
+    private static final long SEED = 0x5A0B815A11L;
+
+    private static final Map<Integer, ZobristKeys> CACHE = new ConcurrentHashMap<>();
+
+    private final int size;
+
+    private final int cellCount;
+
+    private final long[] redKeys;
+
+    private final long[] blueKeys;
+
+    /**
+     * Change of the cell index of the red dot by a move, by direction code.
+     */
+    private final int[] cellDeltas = new int[4];
+
+    private ZobristKeys(int size) {
+        this.size = size;
+        this.cellCount = size * size;
+        var random = new SplittableRandom(SEED ^ size);
+        redKeys = random.longs(cellCount).toArray();
+        blueKeys = random.longs(cellCount).toArray();
+        for (int direction = 0; direction < 4; direction++) {
+            var playerDirection = PlayerDirection.fromCode(direction);
+            cellDeltas[direction] = playerDirection.getRowChange() * size + playerDirection.getColChange();
+        }
+    }
+
+    /**
+     * Returns the keys of the given board size, generating them on first use.
+     * @param size .
+     * @return ZobristKeys object.
+     */
+    public static ZobristKeys of(int size) {
+        return CACHE.computeIfAbsent(size, ZobristKeys::new);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Computes the key of a state from scratch.
+     * @param state Packed state.
+     * @return Zobrist key of the state.
+     */
+    public long key(long state) {
+        return redKeys[(int) (state / cellCount)] ^ blueKeys[(int) (state % cellCount)];
+    }
+
+    /**
+     * Updates a key for a move between two states.
+     * @param key Zobrist key of the old state.
+     * @param oldState Packed state before the move.
+     * @param newState Packed state after the move.
+     * @return Zobrist key of the new state.
+     */
+    public long update(long key, long oldState, long newState) {
+        return key ^ key(oldState) ^ key(newState);
+    }
+
+    /**
+     * Updates a key for a valid move of the red dot in the given direction and the blue dot in the inverse one.
+     * @param key Zobrist key of the old state.
+     * @param state Packed state before the move.
+     * @param direction Direction code of the red dot's move.
+     * @return Zobrist key of the state after the move.
+     */
+    public long move(long key, long state, int direction) {
+        int red = (int) (state / cellCount);
+        int blue = (int) (state % cellCount);
+        int delta = cellDeltas[direction];
+        return key ^ redKeys[red] ^ redKeys[red + delta] ^ blueKeys[blue] ^ blueKeys[blue - delta];
+    }
+
+}
@@ -0,0 +1,174 @@
+package game.replay;
+
+import game.model.GameModel;
+import game.model.MoveHistory;
+import game.model.RuleEngine;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Moves of a game from its starting state, stored as 2-bit direction codes of the red dot, four to a byte, since
+ * the blue dot always moves in the inverse direction.
+ */
+public final class Replay {
+
+    private final int levelId;
+
+    private final long startState;
+
+    private final int moveCount;
+
+    private final byte[] moves;
+
+    /**
+     * Creates a replay of packed moves.
+     * @param levelId .
+     * @param startState Packed state before the first move.
+     * @param moveCount .
+     * @param moves Direction codes, the first move in the lowest two bits of the first byte.
+     */
+    public Replay(int levelId, long startState, int moveCount, byte[] moves) {
+        if (moveCount < 0 || moves.length != packedLength(moveCount)) {
+            throw new IllegalArgumentException("Wrong number of packed moves: " + moveCount);
+        }
+        this.levelId = levelId;
+        this.startState = startState;
+        this.moveCount = moveCount;
+        this.moves = moves.clone();
+    }
+
+    /**
+     * Returns the replay of the moves made in a game, leaving out the moves taken back.
+     * @param model .
+     * @return Replay object.
+     */
+    public static Replay of(GameModel model) {
+        int moveCount = model.getMoveCount();
+        var moves = new byte[packedLength(moveCount)];
+        for (int i = 0; i < moveCount; i++) {
+            moves[i >>> 2] |= model.getMove(i) << ((i & 3) * 2);
+        }
+        return new Replay(model.getLevelId(), model.getStartState(), moveCount, moves);
+    }
+
+    /**
+     * Returns the replay of the moves made from a starting state, leaving out the moves taken back.
+     * @param levelId .
+     * @param startState Packed state before the first move.
+     * @param history .
+     * @return Replay object.
+     */
+    public static Replay of(int levelId, long startState, MoveHistory history) {
+        int moveCount = history.size();
+        var moves = new byte[packedLength(moveCount)];
+        for (int i = 0; i < moveCount; i++) {
+            moves[i >>> 2] |= history.get(i) << ((i & 3) * 2);
+        }
+        return new Replay(levelId, startState, moveCount, moves);
+    }
+
+    public int getLevelId() {
+        return levelId;
+    }
+
+    public long getStartState() {
+        return startState;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @param index .
+     * @return Direction code of the red dot's move.
+     */
+    public int getMove(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (moves[index >>> 2] >>> ((index & 3) * 2)) & 3;
+    }
+
+    /**
+     * Makes the moves of the replay on the given board.
+     * @param engine Rule engine of the level of the replay.
+     * @return State after the last move, or {@code -1} if a move is not valid or follows the winning move.
+     */
+    public long play(RuleEngine engine) {
+        return play(engine, startState, moveCount, moves, 0);
+    }
+
+    /**
+     * Makes packed moves on the given board, reading them in place.
+     * @param engine .
+     * @param startState Packed state before the first move.
+     * @param moveCount .
+     * @param moves Array holding the packed moves.
+     * @param offset Position of the first move in the array.
+     * @return State after the last move, or {@code -1} if a move is not valid or follows the winning move.
+     */
+    static long play(RuleEngine engine, long startState, int moveCount, byte[] moves, int offset) {
+        if (startState < 0 || startState >= engine.getStateCount()) {
+            return -1;
+        }
+        long state = startState;
+        for (int i = 0; i < moveCount; i++) {
+            int direction = (moves[offset + (i >>> 2)] >>> ((i & 3) * 2)) & 3;
+            // the game ends when the dots meet, so moves after it would only pad the replay
+            if (engine.isWon(state) || !engine.isValidMove(state, direction)) {
+                return -1;
+            }
+            state = engine.move(state, direction);
+        }
+        return state;
+    }
+
+    static int packedLength(int moveCount) {
+        return (moveCount + 3) >>> 2;
+    }
+
+    void writeTo(DataOutput output) throws IOException {
+        // zigzag encoded, so models without a level, of id -1, also take a single byte
+        writeVarLong(output, ((levelId << 1) ^ (levelId >> 31)) & 0xFFFFFFFFL);
+        writeVarLong(output, startState);
+        writeVarLong(output, moveCount);
+        output.write(moves);
+    }
+
+    /**
+     * Writes a number as 7-bit groups, lowest first, with the high bit set on every group but the last.
+     */
+    static void writeVarLong(DataOutput output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Replay replay)) {
+            return false;
+        }
+        return levelId == replay.levelId && startState == replay.startState && moveCount == replay.moveCount
+                && Arrays.equals(moves, replay.moves);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(startState) + levelId) + Arrays.hashCode(moves);
+    }
+
+    @Override
+    public String toString() {
+        return "Replay[level=" + levelId + ", start=" + startState + ", moves=" + moveCount + "]";
+    }
+
+}
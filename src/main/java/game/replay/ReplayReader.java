@@ -0,0 +1,250 @@
+package game.replay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import game.model.RuleEngine;
+import org.tinylog.Logger;
+
+/**
+ * Reads the replays written by a {@link ReplayWriter} one at a time, so streams of any length are read in constant
+ * memory. A record failing its checksum is skipped, and a record cut short by a crash ends the stream.
+ *
+ * <p>Records are read into a single buffer and decoded in place. {@link #advance()} moves to the next record,
+ * whose fields are then read from the reader itself without allocating anything; {@link #next()} copies the
+ * record into a {@link Replay} instead.</p>
+ */
+public class ReplayReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream input;
+
+    private final CRC32 checksum = new CRC32();
+
+    /**
+     * Bytes read but not consumed yet are the ones from {@link #position} to {@link #limit}.
+     */
+    private byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int position;
+
+    private int limit;
+
+    /**
+     * Offset in the stream of the first byte of the buffer.
+     */
+    private long bufferOffset;
+
+    /**
+     * Position of the next field decoded in the content of the current record.
+     */
+    private int cursor;
+
+    private long offset;
+
+    private int levelId;
+
+    private long startState;
+
+    private int moveCount;
+
+    /**
+     * Position of the packed moves of the current record in the buffer.
+     */
+    private int movesOffset;
+
+    /**
+     * Opens a stream of replays, checking its header.
+     * @param input .
+     * @throws IOException if the stream can not be read or is not a stream of replays.
+     */
+    public ReplayReader(InputStream input) throws IOException {
+        this.input = input;
+        if (!fill(ReplayWriter.HEADER_LENGTH) || getInt(0) != ReplayWriter.MAGIC) {
+            throw new IOException("Not a replay stream");
+        }
+        int version = buffer[Integer.BYTES] & 0xFF;
+        if (version != ReplayWriter.VERSION) {
+            throw new IOException("Unsupported replay format version " + version);
+        }
+        position = ReplayWriter.HEADER_LENGTH;
+    }
+
+    /**
+     * Reads the next replay.
+     * @return Replay object, or {@code null} at the end of the stream or at a record cut short.
+     * @throws IOException if the stream can not be read.
+     */
+    public Replay next() throws IOException {
+        if (!advance()) {
+            return null;
+        }
+        var moves = Arrays.copyOfRange(buffer, movesOffset, movesOffset + Replay.packedLength(moveCount));
+        return new Replay(levelId, startState, moveCount, moves);
+    }
+
+    /**
+     * Moves to the next valid record, whose fields are read by the getters until the next call.
+     * @return Whether there is a record, {@code false} at the end of the stream or at a record cut short.
+     * @throws IOException if the stream can not be read.
+     */
+    public boolean advance() throws IOException {
+        while (fill(1)) {
+            long length = 0;
+            int prefixLength = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (shift >= 64 || !fill(prefixLength + 1)) {
+                    Logger.warn("Ignoring a replay record cut short at the end of the stream");
+                    return false;
+                }
+                int group = buffer[position + prefixLength++] & 0xFF;
+                length |= (long) (group & 0x7F) << shift;
+                if ((group & 0x80) == 0) {
+                    break;
+                }
+            }
+            if (length < 0 || length > ReplayWriter.MAX_RECORD_LENGTH) {
+                Logger.warn("Stopping at a replay record of corrupt length {}", length);
+                return false;
+            }
+            int recordLength = prefixLength + Integer.BYTES + (int) length;
+            if (!fill(recordLength)) {
+                Logger.warn("Ignoring a replay record cut short at the end of the stream");
+                return false;
+            }
+            int expected = getInt(position + prefixLength);
+            int content = position + prefixLength + Integer.BYTES;
+            long recordOffset = bufferOffset + position;
+            position += recordLength;
+            checksum.reset();
+            checksum.update(buffer, content, (int) length);
+            if ((int) checksum.getValue() != expected) {
+                Logger.warn("Skipping a corrupt replay record of {} bytes", length);
+            } else if (decode(content, content + (int) length)) {
+                offset = recordOffset;
+                return true;
+            } else {
+                Logger.warn("Skipping an invalid replay record");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Offset of the current record in the stream, by which scores refer to it.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getLevelId() {
+        return levelId;
+    }
+
+    public long getStartState() {
+        return startState;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Copies the packed moves of the current record.
+     * @param target .
+     * @param offset Position of the first byte in the target.
+     * @return Number of bytes copied.
+     */
+    public int copyMoves(byte[] target, int offset) {
+        int length = Replay.packedLength(moveCount);
+        System.arraycopy(buffer, movesOffset, target, offset, length);
+        return length;
+    }
+
+    /**
+     * Makes the moves of the current record on the given board, as {@link Replay#play(RuleEngine)}.
+     * @param engine Rule engine of the level of the record.
+     * @return State after the last move, or {@code -1} if a move is not valid or follows the winning move.
+     */
+    public long play(RuleEngine engine) {
+        return Replay.play(engine, startState, moveCount, buffer, movesOffset);
+    }
+
+    /**
+     * Decodes the content of a record, in the layout written by {@link ReplayWriter#write(Replay)}.
+     * @return Whether the content is valid.
+     */
+    private boolean decode(int from, int to) {
+        cursor = from;
+        long zigzag = readVarLong(to);
+        long start = readVarLong(to);
+        long moves = readVarLong(to);
+        if (zigzag < 0 || zigzag > 0xFFFFFFFFL || start < 0 || moves < 0 || moves > Integer.MAX_VALUE - 3
+                || to - cursor != Replay.packedLength((int) moves)) {
+            return false;
+        }
+        levelId = ((int) zigzag >>> 1) ^ -((int) zigzag & 1);
+        startState = start;
+        moveCount = (int) moves;
+        movesOffset = cursor;
+        return true;
+    }
+
+    /**
+     * @return The number at the cursor, or {@code -1} if it does not end before the given position.
+     */
+    private long readVarLong(int end) {
+        long value = 0;
+        for (int shift = 0; shift < 64 && cursor < end; shift += 7) {
+            int group = buffer[cursor++] & 0xFF;
+            value |= (long) (group & 0x7F) << shift;
+            if ((group & 0x80) == 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    private int getInt(int offset) {
+        return (buffer[offset] & 0xFF) << 24 | (buffer[offset + 1] & 0xFF) << 16
+                | (buffer[offset + 2] & 0xFF) << 8 | buffer[offset + 3] & 0xFF;
+    }
+
+    /**
+     * Reads until the buffer holds the given number of bytes from the position, moving them to its start first,
+     * and growing it only for a record larger than it.
+     * @return Whether the bytes were read, {@code false} if the stream ended before.
+     */
+    private boolean fill(int count) throws IOException {
+        if (limit - position >= count) {
+            return true;
+        }
+        if (buffer.length < count) {
+            var grown = new byte[Math.max(count, 2 * buffer.length)];
+            System.arraycopy(buffer, position, grown, 0, limit - position);
+            buffer = grown;
+        } else {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+        }
+        limit -= position;
+        bufferOffset += position;
+        position = 0;
+        while (limit < count) {
+            int read = input.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+}
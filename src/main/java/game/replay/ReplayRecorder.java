@@ -0,0 +1,281 @@
+package game.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.tinylog.Logger;
+
+/**
+ * Appends the replays of finished games to a file in the background, so several game processes can share it.
+ *
+ * <p>A single writer thread keeps the file open. Replays recorded while it is busy are appended in one batch,
+ * holding the lock of the file and forcing it to the disk once. A record torn by a crash is cut off before the
+ * next batch.</p>
+ */
+public class ReplayRecorder implements AutoCloseable {
+
+    /**
+     * Name of the replay file.
+     */
+    public static final String FILE_NAME = "replays.bin";
+
+    /**
+     * Maximum number of replays appended in one batch.
+     */
+    private static final int MAX_BATCH = 64;
+
+    private static ReplayRecorder defaultRecorder;
+
+    private final Path file;
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+
+    private final Thread writer;
+
+    private volatile boolean closed;
+
+    /**
+     * File open by the writer thread, or {@code null} before the first batch and after a failed one.
+     */
+    private FileChannel channel;
+
+    private ReplayWriter replayWriter;
+
+    /**
+     * End of the records of the file already checked, only used by the writer thread.
+     */
+    private long checkedLength;
+
+    private interface Request {
+    }
+
+    private record Append(Replay replay, CompletableFuture<Long> offset) implements Request {
+    }
+
+    private record Stop() implements Request {
+    }
+
+    /**
+     * Creates a recorder appending to the given file, and starts its writer thread.
+     * @param file .
+     */
+    public ReplayRecorder(Path file) {
+        this.file = file;
+        writer = new Thread(this::run, "replay-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the recorder of the replay file under {@code user.dir}, whose pending replays are written at
+     * shutdown.
+     * @return ReplayRecorder object.
+     */
+    public static synchronized ReplayRecorder getDefault() {
+        if (defaultRecorder == null) {
+            var recorder = new ReplayRecorder(Path.of(System.getProperty("user.dir"), FILE_NAME));
+            Runtime.getRuntime().addShutdownHook(new Thread(recorder::close, "replay-writer-shutdown"));
+            defaultRecorder = recorder;
+        }
+        return defaultRecorder;
+    }
+
+    /**
+     * Queues a replay to be appended to the file.
+     * @param replay .
+     * @return Future of the offset of the record in the file, to be stored with the score of the game so the
+     *         {@link ReplayVerifier} can check it, completed once the replay is on the disk.
+     */
+    public CompletableFuture<Long> record(Replay replay) {
+        var offset = new CompletableFuture<Long>();
+        synchronized (this) {
+            if (closed) {
+                offset.completeExceptionally(new IllegalStateException("Replay recorder is closed"));
+            } else {
+                queue.add(new Append(replay, offset));
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Writes every queued replay, stops the writer thread and closes the file.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(new Stop());
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(MAX_BATCH);
+        List<Append> appends = new ArrayList<>(MAX_BATCH);
+        try {
+            boolean stopped = false;
+            while (!stopped) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                for (var request : batch) {
+                    if (request instanceof Append append) {
+                        appends.add(append);
+                    } else if (request instanceof Stop) {
+                        stopped = true;
+                    }
+                }
+                flush(appends);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Logger.error("Replay writer interrupted, {} replays dropped", queue.size());
+        } finally {
+            closeFile();
+        }
+    }
+
+    private void flush(List<Append> appends) {
+        if (appends.isEmpty()) {
+            return;
+        }
+        try {
+            var offsets = appendAll(appends);
+            for (int i = 0; i < appends.size(); i++) {
+                appends.get(i).offset().complete(offsets[i]);
+            }
+        } catch (IOException | RuntimeException e) {
+            Logger.error(e, "Saving {} replays failed", appends.size());
+            // opened and checked again by the next batch
+            closeFile();
+            for (var append : appends) {
+                append.offset().completeExceptionally(e);
+            }
+        } finally {
+            appends.clear();
+        }
+    }
+
+    /**
+     * @return Offsets of the records of the replays.
+     */
+    private long[] appendAll(List<Append> appends) throws IOException {
+        if (channel == null) {
+            open();
+        }
+        var offsets = new long[appends.size()];
+        // released at the end of the batch, so other processes append between batches
+        try (var lock = channel.lock()) {
+            cutTornRecord();
+            long offset = channel.size();
+            channel.position(offset);
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = offset;
+                offset += replayWriter.write(appends.get(i).replay());
+            }
+            replayWriter.flush();
+            channel.force(false);
+            checkedLength = channel.size();
+        }
+        return offsets;
+    }
+
+    private void open() throws IOException {
+        var parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try (var lock = channel.lock()) {
+            if (!checkHeader()) {
+                channel.truncate(0);
+                var header = ByteBuffer.allocate(ReplayWriter.HEADER_LENGTH)
+                        .putInt(ReplayWriter.MAGIC)
+                        .put((byte) ReplayWriter.VERSION)
+                        .flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(false);
+            }
+        } catch (IOException | RuntimeException e) {
+            closeFile();
+            throw e;
+        }
+        checkedLength = ReplayWriter.HEADER_LENGTH;
+        replayWriter = new ReplayWriter(Channels.newOutputStream(channel), false);
+    }
+
+    /**
+     * @return Whether the file starts with a complete header, {@code false} if it is empty or the header was torn.
+     * @throws IOException if the file is not a replay file of the current version.
+     */
+    private boolean checkHeader() throws IOException {
+        var header = ByteBuffer.allocate(ReplayWriter.HEADER_LENGTH);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < ReplayWriter.HEADER_LENGTH) {
+            if (header.remaining() > 0) {
+                Logger.warn("Cutting a torn header off {}", file);
+            }
+            return false;
+        }
+        if (header.getInt() != ReplayWriter.MAGIC) {
+            throw new IOException("Not a replay file: " + file);
+        }
+        int version = header.get() & 0xFF;
+        if (version != ReplayWriter.VERSION) {
+            throw new IOException("Can not append to " + file + " of replay format version " + version);
+        }
+        return true;
+    }
+
+    /**
+     * Cuts off a record torn by a process that crashed while appending it, checking only the records appended
+     * since the last batch.
+     * @throws IOException if the file can not be read or written.
+     */
+    private void cutTornRecord() throws IOException {
+        long size = channel.size();
+        if (checkedLength > size) {
+            // the file was cut shorter meanwhile
+            checkedLength = ReplayWriter.HEADER_LENGTH;
+        }
+        long end = ReplayWriter.completeLength(channel, checkedLength);
+        if (end < size) {
+            Logger.warn("Cutting a torn record of {} bytes off {}", size - end, file);
+            channel.truncate(end);
+        }
+    }
+
+    private void closeFile() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            Logger.error(e, "Closing {} failed", file);
+        }
+        channel = null;
+        replayWriter = null;
+    }
+
+}
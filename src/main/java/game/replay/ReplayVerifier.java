@@ -0,0 +1,322 @@
+package game.replay;
+
+import game.Score;
+import game.leaderboard.ScoreLog;
+import game.model.Level;
+import game.model.LevelLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+import org.tinylog.Logger;
+
+/**
+ * Headless verifier of submitted games, replaying them on the rule engine of their level to check that they are
+ * made of valid moves from the starting state of the level, end as soon as the dots meet, and take the number of
+ * steps claimed by the score submitted with them.
+ *
+ * <p>A {@link Score} refers to the replay of its game by the offset of its record in the replay file, so
+ * {@link #verifyScores(List, Path)} checks the steps stored on the leaderboard against the replay they refer to,
+ * and flags scores without a replay or sharing the replay of another score.</p>
+ *
+ * <p>Batches are split into ranges verified in parallel on a fork-join pool. Verifying a replay only reads its
+ * packed moves and the immutable rule engine, so no object is allocated per move, and replays read from a file
+ * are not even decoded into objects.</p>
+ */
+public class ReplayVerifier {
+
+    /**
+     * Number of replays below which a range is verified without splitting it.
+     */
+    private static final int THRESHOLD = 1024;
+
+    /**
+     * Number of replays read and verified at a time by {@link #verifyFile(Path)}.
+     */
+    private static final int BATCH_SIZE = 1 << 16;
+
+    /**
+     * Outcome of the verification of a replay.
+     */
+    public enum Verdict {
+        VALID,
+        UNKNOWN_LEVEL,
+        WRONG_START,
+        INVALID_MOVE,
+        NOT_WON,
+        WRONG_STEPS,
+        /**
+         * The score refers to no replay, or to no valid record of the replay file.
+         */
+        NO_REPLAY,
+        /**
+         * The score refers to the replay of an earlier score.
+         */
+        REUSED_REPLAY
+    }
+
+    private final IntFunction<Level> levels;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a verifier on the common fork-join pool.
+     * @param levels Level of a level id, or {@code null} if there is no such level.
+     */
+    public ReplayVerifier(IntFunction<Level> levels) {
+        this(levels, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a verifier.
+     * @param levels Level of a level id, or {@code null} if there is no such level.
+     * @param pool .
+     */
+    public ReplayVerifier(IntFunction<Level> levels, ForkJoinPool pool) {
+        this.levels = levels;
+        this.pool = pool;
+    }
+
+    /**
+     * Verifies a single replay.
+     * @param replay .
+     * @param claimedSteps Number of steps submitted with the replay.
+     * @return Verdict of the replay.
+     */
+    public Verdict verify(Replay replay, int claimedSteps) {
+        var level = levels.apply(replay.getLevelId());
+        if (level == null) {
+            return Verdict.UNKNOWN_LEVEL;
+        }
+        if (replay.getStartState() != level.getStartState()) {
+            return Verdict.WRONG_START;
+        }
+        return verdict(level, replay.play(level.getEngine()), replay.getMoveCount(), claimedSteps);
+    }
+
+    private Verdict verify(Batch batch, int index) {
+        var level = levels.apply(batch.levelIds[index]);
+        if (level == null) {
+            return Verdict.UNKNOWN_LEVEL;
+        }
+        if (batch.startStates[index] != level.getStartState()) {
+            return Verdict.WRONG_START;
+        }
+        long state = Replay.play(level.getEngine(), batch.startStates[index], batch.moveCounts[index], batch.moves,
+                batch.movesOffsets[index]);
+        return verdict(level, state, batch.moveCounts[index], batch.moveCounts[index]);
+    }
+
+    private static Verdict verdict(Level level, long state, int moveCount, int claimedSteps) {
+        if (state < 0) {
+            return Verdict.INVALID_MOVE;
+        }
+        if (!level.getEngine().isWon(state)) {
+            return Verdict.NOT_WON;
+        }
+        return moveCount == claimedSteps ? Verdict.VALID : Verdict.WRONG_STEPS;
+    }
+
+    /**
+     * Verifies a batch of replays in parallel.
+     * @param replays .
+     * @param claimedSteps Number of steps submitted with the replay of the same index.
+     * @return Verdicts of the replays in the same order.
+     */
+    public Verdict[] verifyAll(Replay[] replays, int[] claimedSteps) {
+        if (claimedSteps.length < replays.length) {
+            throw new IllegalArgumentException("Missing claimed steps");
+        }
+        var verdicts = new Verdict[replays.length];
+        pool.invoke(new VerifyRange(index -> verify(replays[index], claimedSteps[index]), verdicts, 0, replays.length));
+        return verdicts;
+    }
+
+    private class VerifyRange extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntFunction<Verdict> verifier;
+
+        private final Verdict[] verdicts;
+
+        private final int from;
+
+        private final int to;
+
+        VerifyRange(IntFunction<Verdict> verifier, Verdict[] verdicts, int from, int to) {
+            this.verifier = verifier;
+            this.verdicts = verdicts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    verdicts[i] = verifier.apply(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new VerifyRange(verifier, verdicts, from, middle), new VerifyRange(verifier, verdicts, middle, to));
+        }
+    }
+
+    /**
+     * Replays read from a file, stored in flat arrays reused from batch to batch, the packed moves of every replay
+     * one after the other.
+     */
+    private static final class Batch {
+
+        private final int[] levelIds = new int[BATCH_SIZE];
+
+        private final long[] startStates = new long[BATCH_SIZE];
+
+        private final int[] moveCounts = new int[BATCH_SIZE];
+
+        private final int[] movesOffsets = new int[BATCH_SIZE];
+
+        private byte[] moves = new byte[BATCH_SIZE];
+
+        private int count;
+
+        private int movesLength;
+
+        /**
+         * Reads the next replays of a reader into the batch, replacing the ones it held.
+         * @param reader .
+         * @throws IOException if the file can not be read.
+         */
+        void fill(ReplayReader reader) throws IOException {
+            count = 0;
+            movesLength = 0;
+            while (count < BATCH_SIZE && reader.advance()) {
+                int length = Replay.packedLength(reader.getMoveCount());
+                if (moves.length - movesLength < length) {
+                    moves = Arrays.copyOf(moves, Math.max(movesLength + length, 2 * moves.length));
+                }
+                levelIds[count] = reader.getLevelId();
+                startStates[count] = reader.getStartState();
+                moveCounts[count] = reader.getMoveCount();
+                movesOffsets[count] = movesLength;
+                movesLength += reader.copyMoves(moves, movesLength);
+                count++;
+            }
+        }
+    }
+
+    /**
+     * Verifies that every replay of a replay file is a won game, in batches, and counts the verdicts. The replays are decoded into arrays reused by every batch, so the number of objects
+     * allocated does not depend on the number of replays.
+     * @param file .
+     * @return Number of replays by verdict.
+     * @throws IOException if the file can not be read.
+     */
+    public Map<Verdict, Long> verifyFile(Path file) throws IOException {
+        Map<Verdict, Long> counts = new EnumMap<>(Verdict.class);
+        var batch = new Batch();
+        var verdicts = new Verdict[BATCH_SIZE];
+        try (var reader = new ReplayReader(Files.newInputStream(file))) {
+            do {
+                batch.fill(reader);
+                pool.invoke(new VerifyRange(index -> verify(batch, index), verdicts, 0, batch.count));
+                for (int i = 0; i < batch.count; i++) {
+                    counts.merge(verdicts[i], 1L, Long::sum);
+                }
+            } while (batch.count == BATCH_SIZE);
+        }
+        return counts;
+    }
+
+    /**
+     * Verifies scores against the replays they refer to, reading the replay file once from start to end.
+     * @param scores Scores in the order they were made, the earliest of the scores referring to the same replay
+     *               being verified against it.
+     * @param replayFile .
+     * @return Verdicts of the scores in the same order.
+     * @throws IOException if the replay file can not be read.
+     */
+    public Verdict[] verifyScores(List<Score> scores, Path replayFile) throws IOException {
+        var verdicts = new Verdict[scores.size()];
+        Map<Long, Integer> pending = new HashMap<>();
+        for (int i = 0; i < verdicts.length; i++) {
+            var offset = scores.get(i).getReplayOffset();
+            if (offset == null) {
+                verdicts[i] = Verdict.NO_REPLAY;
+            } else if (pending.putIfAbsent(offset, i) != null) {
+                verdicts[i] = Verdict.REUSED_REPLAY;
+            }
+        }
+        if (!pending.isEmpty() && Files.exists(replayFile)) {
+            try (var reader = new ReplayReader(Files.newInputStream(replayFile))) {
+                while (!pending.isEmpty() && reader.advance()) {
+                    var index = pending.remove(reader.getOffset());
+                    if (index != null) {
+                        verdicts[index] = verify(reader, scores.get(index).getSteps());
+                    }
+                }
+            }
+        }
+        for (int index : pending.values()) {
+            verdicts[index] = Verdict.NO_REPLAY;
+        }
+        return verdicts;
+    }
+
+    private Verdict verify(ReplayReader reader, int claimedSteps) {
+        var level = levels.apply(reader.getLevelId());
+        if (level == null) {
+            return Verdict.UNKNOWN_LEVEL;
+        }
+        if (reader.getStartState() != level.getStartState()) {
+            return Verdict.WRONG_START;
+        }
+        return verdict(level, reader.play(level.getEngine()), reader.getMoveCount(), claimedSteps);
+    }
+
+    /**
+     * Verifies the scores of the leaderboard against the replays they refer to, logging every score not valid,
+     * on the built-in level and the given level files.
+     * @param args Path of the replay file, {@value ReplayRecorder#FILE_NAME} by default, the directory of the
+     *             scores, {@code user.dir} by default, and level files.
+     * @throws IOException if the files can not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        var replayFile = Path.of(args.length > 0 ? args[0] : ReplayRecorder.FILE_NAME);
+        var directory = Path.of(args.length > 1 ? args[1] : System.getProperty("user.dir"));
+        Map<Integer, Level> levels = new HashMap<>();
+        var builtIn = LevelLoader.builtIn();
+        levels.put(builtIn.getId(), builtIn);
+        for (int i = 2; i < args.length; i++) {
+            var level = LevelLoader.file(Path.of(args[i]));
+            levels.put(level.getId(), level);
+        }
+        var verifier = new ReplayVerifier(levels::get);
+        long start = System.nanoTime();
+        var scores = new ScoreLog(directory).readAll();
+        Collections.reverse(scores);
+        var verdicts = verifier.verifyScores(scores, replayFile);
+        Map<Verdict, Long> counts = new EnumMap<>(Verdict.class);
+        for (int i = 0; i < verdicts.length; i++) {
+            counts.merge(verdicts[i], 1L, Long::sum);
+            if (verdicts[i] != Verdict.VALID) {
+                Logger.warn("{}: {}", verdicts[i], scores.get(i));
+            }
+        }
+        Logger.info("Verified {} scores in {} ms: {}", verdicts.length, (System.nanoTime() - start) / 1_000_000,
+                counts);
+    }
+
+}
@@ -0,0 +1,129 @@
+package game.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Writes replays to a stream: a header of a magic number and the format version, then every replay as a record of
+ * its length as a variable length number, the CRC32 of its content and the content: its level id, its starting
+ * state and its number of moves as variable length numbers, followed by the packed moves.
+ *
+ * <p>A score refers to the replay of its game by the offset of its record, so the steps claimed are only stored
+ * with the score. Only the current {@link #VERSION} is read.</p>
+ */
+public class ReplayWriter implements AutoCloseable {
+
+    static final int MAGIC = 0x49445250;
+
+    static final int VERSION = 3;
+
+    static final int HEADER_LENGTH = Integer.BYTES + 1;
+
+    /**
+     * Longest record read, a replay of a billion moves, so a corrupt length does not allocate the heap away.
+     */
+    static final int MAX_RECORD_LENGTH = 1 << 28;
+
+    private final DataOutputStream output;
+
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+
+    private final DataOutputStream recordOutput = new DataOutputStream(record);
+
+    private final CRC32 checksum = new CRC32();
+
+    /**
+     * Starts a stream of replays, writing its header.
+     * @param output .
+     * @throws IOException if the stream can not be written.
+     */
+    public ReplayWriter(OutputStream output) throws IOException {
+        this(output, true);
+    }
+
+    /**
+     * Creates a writer of replays.
+     * @param output .
+     * @param header Whether to write the header, {@code false} when appending to an existing stream.
+     * @throws IOException if the stream can not be written.
+     */
+    public ReplayWriter(OutputStream output, boolean header) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(output));
+        if (header) {
+            this.output.writeInt(MAGIC);
+            this.output.writeByte(VERSION);
+        }
+    }
+
+    /**
+     * Writes a replay.
+     * @param replay .
+     * @return Length of the record written, so the offset of the next record is known before flushing.
+     * @throws IOException if the stream can not be written.
+     */
+    public int write(Replay replay) throws IOException {
+        record.reset();
+        replay.writeTo(recordOutput);
+        var content = record.toByteArray();
+        checksum.reset();
+        checksum.update(content);
+        Replay.writeVarLong(output, content.length);
+        output.writeInt((int) checksum.getValue());
+        output.write(content);
+        int prefixLength = 1;
+        for (int length = content.length; length > 0x7F; length >>>= 7) {
+            prefixLength++;
+        }
+        return prefixLength + Integer.BYTES + content.length;
+    }
+
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * Finds the end of the last complete record of a file, so a record torn by a crash can be cut off before
+     * appending.
+     * @param channel .
+     * @param position Start of a record of the file.
+     * @return Position after the last record that fits in the file.
+     * @throws IOException if the file can not be read.
+     */
+    static long completeLength(FileChannel channel, long position) throws IOException {
+        long size = channel.size();
+        var prefix = ByteBuffer.allocate(10);
+        while (position < size) {
+            prefix.clear();
+            channel.read(prefix, position);
+            prefix.flip();
+            long length = -1;
+            long value = 0;
+            for (int shift = 0; shift < 64 && prefix.hasRemaining(); shift += 7) {
+                int group = prefix.get() & 0xFF;
+                value |= (long) (group & 0x7F) << shift;
+                if ((group & 0x80) == 0) {
+                    length = value;
+                    break;
+                }
+            }
+            if (length < 0 || length > MAX_RECORD_LENGTH
+                    || position + prefix.position() + Integer.BYTES + length > size) {
+                return position;
+            }
+            position += prefix.position() + Integer.BYTES + length;
+        }
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+}
@@ -0,0 +1,348 @@
+package game.server;
+
+import game.model.Level;
+import game.model.LevelLoader;
+import game.model.PlayerDirection;
+import game.model.RuleEngine;
+import game.replay.ReplayRecorder;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.tinylog.Logger;
+
+/**
+ * Headless game server on a local socket, speaking a line-based text protocol, one response line per command:
+ *
+ * <ul>
+ *     <li>{@code START [levelId]}: {@code OK <sessionId> <redRow> <redCol> <blueRow> <blueCol>}, level 0 by
+ *     default</li>
+ *     <li>{@code MOVES <sessionId>}: {@code OK} followed by the valid directions of the red dot</li>
+ *     <li>{@code MOVE <sessionId> <direction>}: {@code OK <redRow> <redCol> <blueRow> <blueCol>}, followed by
+ *     {@code WON} if the dots met</li>
+ *     <li>{@code UNDO <sessionId>}: the positions like {@code MOVE}</li>
+ *     <li>{@code FINISH <sessionId>}: {@code OK <moveCount> WON} or {@code OK <moveCount> NOT_WON}, ending the
+ *     session</li>
+ *     <li>{@code QUIT}: {@code OK}, closing the connection</li>
+ * </ul>
+ *
+ * <p>Failed commands are answered with {@code ERR <message>}. Sessions live in the {@link SessionManager}, not in
+ * the connections, so a game may be continued from another connection, and a session not used for the idle
+ * timeout is ended.</p>
+ *
+ * <p>Every connection is served by a thread of its own. Virtual threads only exist from Java 21, so on the Java 16
+ * and 17 runtimes this project is built for they are platform threads, each reserving a stack, and the server
+ * refuses connections beyond {@value #MAX_CONNECTIONS} open ones. Run on Java 21 or later, the same build serves
+ * them on virtual threads.</p>
+ */
+public class GameServer implements AutoCloseable {
+
+    /**
+     * Port the server listens on by default.
+     */
+    public static final int DEFAULT_PORT = 7070;
+
+    /**
+     * Time after which a session not used is ended by default.
+     */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    /**
+     * Number of connections served at once, beyond which new ones are closed at once.
+     */
+    public static final int MAX_CONNECTIONS = 4096;
+
+    private static final int BACKLOG = 1024;
+
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1000;
+
+    private final SessionManager sessions;
+
+    private final Duration idleTimeout;
+
+    private final Semaphore connectionPermits = new Semaphore(MAX_CONNECTIONS);
+
+    private final ServerSocket serverSocket;
+
+    private final ExecutorService connections = newConnectionExecutor();
+
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    private final Thread acceptor;
+
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "game-session-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates a server listening on the loopback address, accepting connections once started, with the
+     * {@link #DEFAULT_IDLE_TIMEOUT}.
+     * @param sessions .
+     * @param port Port to listen on, 0 for any free port.
+     * @throws IOException if the port can not be bound.
+     */
+    public GameServer(SessionManager sessions, int port) throws IOException {
+        this(sessions, port, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Creates a server listening on the loopback address, accepting connections once started.
+     * @param sessions .
+     * @param port Port to listen on, 0 for any free port.
+     * @param idleTimeout Time after which a session not used is ended.
+     * @throws IOException if the port can not be bound.
+     */
+    public GameServer(SessionManager sessions, int port, Duration idleTimeout) throws IOException {
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Idle timeout " + idleTimeout);
+        }
+        this.sessions = sessions;
+        this.idleTimeout = idleTimeout;
+        serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::accept, "game-server-acceptor");
+    }
+
+    /**
+     * Returns an executor running every task on a new virtual thread, or on a cached pool of daemon platform
+     * threads if the runtime has no virtual threads. The factory of virtual threads is looked up at runtime, since
+     * it is not part of the Java 16 API the project is compiled against, so only Java 21 or later runtimes have
+     * it.
+     * @return ExecutorService object.
+     */
+    public static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            Logger.info("Virtual threads are not available on Java {}, serving connections on platform threads",
+                    Runtime.version().feature());
+            return Executors.newCachedThreadPool(runnable -> {
+                var thread = new Thread(runnable, "game-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public SessionManager getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Starts accepting connections and ending the idle sessions.
+     */
+    public void start() {
+        acceptor.start();
+        long period = Math.max(idleTimeout.toNanos() / 4, TimeUnit.MILLISECONDS.toNanos(1));
+        evictor.scheduleWithFixedDelay(this::evictIdleSessions, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    private void evictIdleSessions() {
+        int evicted = sessions.evictIdle(idleTimeout);
+        if (evicted > 0) {
+            Logger.debug("Ended {} idle sessions", evicted);
+        }
+    }
+
+    private void accept() {
+        long backoffMillis = 0;
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+                backoffMillis = 0;
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    break;
+                }
+                // failures like running out of file descriptors repeat at once, so wait longer after each
+                backoffMillis = Math.min(Math.max(2 * backoffMillis, 10), MAX_ACCEPT_BACKOFF_MILLIS);
+                Logger.warn(e, "Could not accept a connection, retrying in {} ms", backoffMillis);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                continue;
+            }
+            if (!connectionPermits.tryAcquire()) {
+                Logger.warn("Refusing a connection beyond {} open ones", MAX_CONNECTIONS);
+                close(socket);
+                continue;
+            }
+            openSockets.add(socket);
+            try {
+                connections.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                close(socket);
+                connectionPermits.release();
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             var writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                     StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                writer.write(execute(line));
+                writer.write('\n');
+                writer.flush();
+                if (line.trim().equalsIgnoreCase("QUIT")) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            Logger.debug("Connection closed: {}", e.getMessage());
+        } finally {
+            close(socket);
+            connectionPermits.release();
+        }
+    }
+
+    private void close(Socket socket) {
+        openSockets.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            Logger.debug("Could not close a connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Executes a command of the protocol.
+     * @param line Command line, without the line terminator.
+     * @return Response line, without the line terminator.
+     */
+    public String execute(String line) {
+        var words = line.trim().split("\\s+");
+        try {
+            return switch (words[0].toUpperCase(Locale.ROOT)) {
+                case "START" -> {
+                    var session = sessions.start(words.length > 1 ? Integer.parseInt(words[1]) : 0);
+                    yield "OK " + session.getId() + " " + positions(session.getLevel().getEngine(), session.getState());
+                }
+                case "MOVES" -> {
+                    var response = new StringBuilder("OK");
+                    int moves = session(words).getValidMoves();
+                    for (int direction = 0; direction < 4; direction++) {
+                        if ((moves & 1 << direction) != 0) {
+                            response.append(' ').append(PlayerDirection.fromCode(direction));
+                        }
+                    }
+                    yield response.toString();
+                }
+                case "MOVE" -> {
+                    var session = session(words);
+                    var direction = PlayerDirection.valueOf(argument(words, 2).toUpperCase(Locale.ROOT));
+                    var engine = session.getLevel().getEngine();
+                    long state = session.move(direction.ordinal());
+                    yield "OK " + positions(engine, state) + (engine.isWon(state) ? " WON" : "");
+                }
+                case "UNDO" -> {
+                    var session = session(words);
+                    if (!session.undo()) {
+                        yield "ERR No move to undo";
+                    }
+                    yield "OK " + positions(session.getLevel().getEngine(), session.getState());
+                }
+                case "FINISH" -> {
+                    var session = sessions.finish(Long.parseLong(argument(words, 1)));
+                    yield "OK " + session.getMoveCount() + (session.isWon() ? " WON" : " NOT_WON");
+                }
+                case "QUIT" -> "OK";
+                default -> "ERR Unknown command: " + words[0];
+            };
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    private GameSession session(String[] words) {
+        return sessions.get(Long.parseLong(argument(words, 1)));
+    }
+
+    private static String argument(String[] words, int index) {
+        if (index >= words.length) {
+            throw new IllegalArgumentException("Missing argument " + index + " of " + words[0]);
+        }
+        return words[index];
+    }
+
+    private static String positions(RuleEngine engine, long state) {
+        var red = engine.position(engine.redCell(state));
+        var blue = engine.position(engine.blueCell(state));
+        return red.row() + " " + red.col() + " " + blue.row() + " " + blue.col();
+    }
+
+    /**
+     * Stops accepting connections and ending idle sessions, and closes the open connections. Sessions are kept in
+     * the session manager.
+     */
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            Logger.warn(e, "Could not close the server socket");
+        }
+        for (var socket : openSockets) {
+            close(socket);
+        }
+        connections.shutdown();
+    }
+
+    /**
+     * Serves the built-in level as level 0 and the given level files by their ids, recording the won games.
+     * @param args Port, {@value #DEFAULT_PORT} by default, followed by the paths of level files.
+     * @throws IOException if the port can not be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        Map<Integer, Level> levels = new HashMap<>();
+        var builtIn = LevelLoader.builtIn();
+        levels.put(builtIn.getId(), builtIn);
+        for (int i = 1; i < args.length; i++) {
+            var level = LevelLoader.file(Path.of(args[i]));
+            levels.put(level.getId(), level);
+        }
+        var recorder = ReplayRecorder.getDefault();
+        var sessions = new SessionManager(levels::get, recorder::record);
+        var server = new GameServer(sessions, args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+        Logger.info("Serving {} levels on port {}", levels.size(), server.getPort());
+    }
+
+}
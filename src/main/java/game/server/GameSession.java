@@ -0,0 +1,105 @@
+package game.server;
+
+import game.model.Level;
+import game.model.MoveHistory;
+import game.model.RuleEngine;
+import game.replay.Replay;
+
+/**
+ * Game of a player on the server, kept as the packed state of the rule engine of its level and the packed moves
+ * made, so an idle session takes a few dozen bytes.
+ *
+ * <p>The methods are synchronized, so the same session may be played from several connections.</p>
+ */
+public class GameSession {
+
+    private final long id;
+
+    private final Level level;
+
+    private final MoveHistory history = new MoveHistory();
+
+    private long state;
+
+    /**
+     * {@link System#nanoTime()} of the last time the session was started or looked up.
+     */
+    private volatile long lastAccess = System.nanoTime();
+
+    GameSession(long id, Level level) {
+        this.id = id;
+        this.level = level;
+        this.state = level.getStartState();
+    }
+
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public synchronized long getState() {
+        return state;
+    }
+
+    public synchronized boolean isWon() {
+        return level.getEngine().isWon(state);
+    }
+
+    public synchronized int getMoveCount() {
+        return history.size();
+    }
+
+    /**
+     * @return Bitmask with bit {@code 1 << code} set for every valid direction, 0 once the game is won.
+     */
+    public synchronized int getValidMoves() {
+        return isWon() ? 0 : level.getEngine().getValidMoves(state);
+    }
+
+    /**
+     * Moves the red dot in the given direction and the blue dot in the inverse one.
+     * @param direction Direction code of the red dot's move.
+     * @return State after the move.
+     * @throws IllegalArgumentException if the move is not valid.
+     */
+    public synchronized long move(int direction) {
+        if (direction < 0 || direction > 3 || (getValidMoves() & 1 << direction) == 0) {
+            throw new IllegalArgumentException("Invalid move: " + direction);
+        }
+        history.push(direction);
+        state = level.getEngine().move(state, direction);
+        return state;
+    }
+
+    /**
+     * Takes back the last move.
+     * @return Whether there was a move to take back.
+     */
+    public synchronized boolean undo() {
+        if (!history.canUndo()) {
+            return false;
+        }
+        int direction = history.undo();
+        state = level.getEngine().move(state, RuleEngine.inverse(direction), direction);
+        return true;
+    }
+
+    /**
+     * @return Replay of the moves made, leaving out the moves taken back.
+     */
+    public synchronized Replay toReplay() {
+        return Replay.of(level.getId(), level.getStartState(), history);
+    }
+
+}
@@ -0,0 +1,115 @@
+package game.server;
+
+import game.model.Level;
+import game.replay.Replay;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Registry of the games played on the server, independent of how the players connect. Games left without being
+ * finished are ended by {@link #evictIdle(Duration)}.
+ */
+public class SessionManager {
+
+    private final IntFunction<Level> levels;
+
+    private final Consumer<Replay> wonGames;
+
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /**
+     * Creates a session manager discarding the games played.
+     * @param levels Level of a level id, or {@code null} if there is no such level.
+     */
+    public SessionManager(IntFunction<Level> levels) {
+        this(levels, replay -> { });
+    }
+
+    /**
+     * Creates a session manager.
+     * @param levels Level of a level id, or {@code null} if there is no such level.
+     * @param wonGames Receives the replay of every game finished with the dots met.
+     */
+    public SessionManager(IntFunction<Level> levels, Consumer<Replay> wonGames) {
+        this.levels = levels;
+        this.wonGames = wonGames;
+    }
+
+    /**
+     * Starts a game from the starting position of a level.
+     * @param levelId .
+     * @return The new session.
+     * @throws IllegalArgumentException if there is no such level.
+     */
+    public GameSession start(int levelId) {
+        var level = levels.apply(levelId);
+        if (level == null) {
+            throw new IllegalArgumentException("Unknown level: " + levelId);
+        }
+        var session = new GameSession(nextId.getAndIncrement(), level);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * @param id Session id.
+     * @return The session.
+     * @throws IllegalArgumentException if there is no such session.
+     */
+    public GameSession get(long id) {
+        var session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown session: " + id);
+        }
+        session.touch();
+        return session;
+    }
+
+    /**
+     * Ends the games not started or looked up for the given time, without passing on their replays, since their
+     * players left without finishing them.
+     * @param maxIdle .
+     * @return Number of games ended.
+     */
+    public int evictIdle(Duration maxIdle) {
+        long now = System.nanoTime();
+        long maxIdleNanos = maxIdle.toNanos();
+        int evicted = 0;
+        for (var iterator = sessions.values().iterator(); iterator.hasNext(); ) {
+            if (now - iterator.next().getLastAccess() >= maxIdleNanos) {
+                iterator.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Ends a game, passing on its replay if it was won.
+     * @param id Session id.
+     * @return The ended session.
+     * @throws IllegalArgumentException if there is no such session.
+     */
+    public GameSession finish(long id) {
+        var session = sessions.remove(id);
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown session: " + id);
+        }
+        if (session.isWon()) {
+            wonGames.accept(session.toReplay());
+        }
+        return session;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+}
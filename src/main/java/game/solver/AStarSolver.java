@@ -0,0 +1,126 @@
+package game.solver;
+
+import game.model.RuleEngine;
+
+/**
+ * A* solver for boards with too many states for breadth-first search, only visiting the states the heuristic
+ * leads to.
+ *
+ * <p>The heuristic is half the Manhattan distance between the dots, rounded up, since a move brings them at most
+ * 2 squares closer. It never changes by more than one per move, so the first time a state is taken from the open
+ * heap its distance from the start is final. States whose dots can not meet by parity are answered without
+ * searching. The open heap is ordered by the estimated length, then by the heuristic, so of equally promising
+ * states the deepest is expanded first. The buffers are reused between calls, so a solver instance must not be
+ * shared between threads.</p>
+ */
+public class AStarSolver implements Solver {
+
+    private final RuleEngine engine;
+
+    /**
+     * Distance from the start shifted left by 2, and the direction code the state was reached by.
+     */
+    private final StateMap reached = new StateMap(1 << 10);
+
+    private final StateHeap open = new StateHeap();
+
+    private long expandedCount;
+
+    /**
+     * Creates a solver for the board of the given rule engine.
+     * @param engine .
+     */
+    public AStarSolver(RuleEngine engine) {
+        this.engine = engine;
+    }
+
+    public RuleEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * @return Number of states expanded by the last search.
+     */
+    public long getExpandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Returns a lower bound of the number of moves needed to win.
+     * @param state Packed state.
+     * @return Half the Manhattan distance between the dots, rounded up.
+     */
+    public int heuristic(long state) {
+        return (engine.dotDistance(state) + 1) / 2;
+    }
+
+    @Override
+    public int[] solve(long start) {
+        long goal = search(start);
+        if (goal < 0) {
+            return null;
+        }
+        var moves = new int[reached.get(goal) >>> 2];
+        long state = goal;
+        for (int i = moves.length - 1; i >= 0; i--) {
+            int direction = reached.get(state) & 3;
+            moves[i] = direction;
+            state = engine.move(state, RuleEngine.inverse(direction), direction);
+        }
+        return moves;
+    }
+
+    @Override
+    public int distance(long start) {
+        long goal = search(start);
+        return goal < 0 ? -1 : reached.get(goal) >>> 2;
+    }
+
+    /**
+     * Runs the search from the given state.
+     * @param start Packed state.
+     * @return The winning state found, or {@code -1} if there is none.
+     */
+    private long search(long start) {
+        reached.clear();
+        open.clear();
+        expandedCount = 0;
+        if (!engine.canMeet(start)) {
+            return -1;
+        }
+        reached.put(start, 0);
+        push(start, 0);
+        while (!open.isEmpty()) {
+            long priority = open.peekPriority();
+            long state = open.pop();
+            int distance = (int) (priority >>> 32) - (int) priority;
+            if (reached.get(state) >>> 2 < distance) {
+                // a shorter path to the state was found after this entry was pushed
+                continue;
+            }
+            if (engine.isWon(state)) {
+                return state;
+            }
+            expandedCount++;
+            int moves = engine.getValidMoves(state);
+            for (int direction = 0; direction < 4; direction++) {
+                if ((moves & 1 << direction) == 0) {
+                    continue;
+                }
+                long next = engine.move(state, direction);
+                int known = reached.get(next);
+                if (known < 0 || known >>> 2 > distance + 1) {
+                    reached.put(next, (distance + 1) << 2 | direction);
+                    push(next, distance + 1);
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void push(long state, int distance) {
+        int heuristic = heuristic(state);
+        open.push((long) (distance + heuristic) << 32 | heuristic, state);
+    }
+
+}
@@ -0,0 +1,129 @@
+package game.solver;
+
+import game.model.RuleEngine;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first solver finding the shortest move sequence to a state where both dots are on the same square.
+ *
+ * <p>The visited states are marked in a bitset indexed by the packed state of the {@link RuleEngine}, and the
+ * direction a state was reached by is stored in a byte per state, from which the path is rebuilt by undoing the
+ * moves. The buffers are reused between calls, so a solver instance must not be shared between threads.</p>
+ */
+public class BfsSolver implements Solver {
+
+    private RuleEngine engine;
+
+    private final long[] visited;
+
+    private final byte[] reachedBy;
+
+    private final int[] queue;
+
+    /**
+     * Creates a solver for the board of the given rule engine.
+     * @param engine .
+     */
+    public BfsSolver(RuleEngine engine) {
+        if (engine.getStateCount() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Board is too large for breadth-first search");
+        }
+        int stateCount = (int) engine.getStateCount();
+        this.engine = engine;
+        visited = new long[(stateCount + 63) >>> 6];
+        reachedBy = new byte[stateCount];
+        queue = new int[stateCount];
+    }
+
+    public RuleEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Switches the solver to another board of the same size, keeping its buffers.
+     * @param engine .
+     * @throws IllegalArgumentException if the board has another size.
+     */
+    public void reset(RuleEngine engine) {
+        if (engine.getSize() != this.engine.getSize()) {
+            throw new IllegalArgumentException("Board size " + engine.getSize() + " instead of " + this.engine.getSize());
+        }
+        this.engine = engine;
+    }
+
+    @Override
+    public int[] solve(long start) {
+        int goal = search(start);
+        if (goal < 0) {
+            return null;
+        }
+        int[] moves = new int[pathLength(start, goal)];
+        long state = goal;
+        for (int i = moves.length - 1; i >= 0; i--) {
+            moves[i] = reachedBy[(int) state];
+            state = undo(state);
+        }
+        return moves;
+    }
+
+    @Override
+    public int distance(long start) {
+        int goal = search(start);
+        return goal < 0 ? -1 : pathLength(start, goal);
+    }
+
+    private int pathLength(long start, long goal) {
+        int length = 0;
+        for (long state = goal; state != start; length++) {
+            state = undo(state);
+        }
+        return length;
+    }
+
+    private long undo(long state) {
+        int direction = reachedBy[(int) state];
+        return engine.move(state, RuleEngine.inverse(direction), direction);
+    }
+
+    /**
+     * Runs the breadth-first search from the given state.
+     * @param start Packed state.
+     * @return The first winning state found, or {@code -1} if there is none.
+     */
+    private int search(long start) {
+        Arrays.fill(visited, 0L);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = (int) start;
+        mark((int) start);
+        while (head < tail) {
+            int state = queue[head++];
+            if (engine.isWon(state)) {
+                return state;
+            }
+            int moves = engine.getValidMoves(state);
+            for (int direction = 0; direction < 4; direction++) {
+                if ((moves & 1 << direction) == 0) {
+                    continue;
+                }
+                int next = (int) engine.move(state, direction);
+                if (!isMarked(next)) {
+                    mark(next);
+                    reachedBy[next] = (byte) direction;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void mark(int state) {
+        visited[state >>> 6] |= 1L << state;
+    }
+
+    private boolean isMarked(int state) {
+        return (visited[state >>> 6] & 1L << state) != 0;
+    }
+
+}
@@ -0,0 +1,198 @@
+package game.solver;
+
+import game.model.RuleEngine;
+
+import java.util.Arrays;
+
+/**
+ * Bidirectional breadth-first solver for boards with too many states for a single breadth-first search, meeting
+ * in the middle between a search forward from the start and one backward from the goal.
+ *
+ * <p>Every move takes the red dot one square and the blue dot one square the opposite way, so the sum of their
+ * squares never changes and the only winning state that can be reached has both dots on the square halfway
+ * between them. Since every move can be taken back, the backward search expands the same moves as the forward
+ * one. The side with the smaller layer is expanded a whole layer at a time, so the shortest of the paths through
+ * the states found in both searches during a layer is the shortest path. The buffers are reused between calls,
+ * so a solver instance must not be shared between threads.</p>
+ */
+public class BidirectionalSolver implements Solver {
+
+    private final RuleEngine engine;
+
+    /**
+     * States reached forward from the start, with the direction code they were reached by.
+     */
+    private final Side forward = new Side();
+
+    /**
+     * States reached backward from the goal, with the direction code leading towards the goal.
+     */
+    private final Side backward = new Side();
+
+    private long expandedCount;
+
+    /**
+     * Length of the path through the meeting state found by the last search.
+     */
+    private int length;
+
+    /**
+     * One direction of the search: the states reached with their distance shifted left by 2 and a direction code,
+     * and the last layer reached.
+     */
+    private static final class Side {
+
+        private final StateMap reached = new StateMap(1 << 10);
+
+        private long[] layer = new long[64];
+
+        private int layerSize;
+
+        private long[] nextLayer = new long[64];
+
+        private int nextLayerSize;
+
+        private int depth;
+
+        void reset(long state) {
+            reached.clear();
+            reached.put(state, 0);
+            layer[0] = state;
+            layerSize = 1;
+            nextLayerSize = 0;
+            depth = 0;
+        }
+
+        void add(long state, int direction) {
+            reached.put(state, (depth + 1) << 2 | direction);
+            if (nextLayerSize == nextLayer.length) {
+                nextLayer = Arrays.copyOf(nextLayer, nextLayerSize * 2);
+            }
+            nextLayer[nextLayerSize++] = state;
+        }
+
+        void advance() {
+            var swap = layer;
+            layer = nextLayer;
+            layerSize = nextLayerSize;
+            nextLayer = swap;
+            nextLayerSize = 0;
+            depth++;
+        }
+    }
+
+    /**
+     * Creates a solver for the board of the given rule engine.
+     * @param engine .
+     */
+    public BidirectionalSolver(RuleEngine engine) {
+        this.engine = engine;
+    }
+
+    public RuleEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * @return Number of states expanded by the last search, in both directions.
+     */
+    public long getExpandedCount() {
+        return expandedCount;
+    }
+
+    @Override
+    public int[] solve(long start) {
+        long meeting = search(start);
+        if (meeting < 0) {
+            return null;
+        }
+        var moves = new int[length];
+        int forwardLength = forward.reached.get(meeting) >>> 2;
+        long state = meeting;
+        for (int i = forwardLength - 1; i >= 0; i--) {
+            int direction = forward.reached.get(state) & 3;
+            moves[i] = direction;
+            state = engine.move(state, RuleEngine.inverse(direction), direction);
+        }
+        state = meeting;
+        for (int i = forwardLength; i < length; i++) {
+            int direction = backward.reached.get(state) & 3;
+            moves[i] = direction;
+            state = engine.move(state, direction);
+        }
+        return moves;
+    }
+
+    @Override
+    public int distance(long start) {
+        return search(start) < 0 ? -1 : length;
+    }
+
+    /**
+     * Runs the search from the given state.
+     * @param start Packed state.
+     * @return A state on a shortest path reached by both searches, or {@code -1} if there is none.
+     */
+    private long search(long start) {
+        expandedCount = 0;
+        if (!engine.canMeet(start)) {
+            return -1;
+        }
+        int size = engine.getSize();
+        int red = engine.redCell(start);
+        int blue = engine.blueCell(start);
+        int middle = (red / size + blue / size) / 2 * size + (red % size + blue % size) / 2;
+        long goal = engine.state(middle, middle);
+        forward.reset(start);
+        backward.reset(goal);
+        if (start == goal) {
+            length = 0;
+            return start;
+        }
+        while (forward.layerSize > 0 && backward.layerSize > 0) {
+            long meeting = forward.layerSize <= backward.layerSize
+                    ? expand(forward, backward, false)
+                    : expand(backward, forward, true);
+            if (meeting >= 0) {
+                return meeting;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Expands the last layer of a side.
+     * @param side .
+     * @param other The other side.
+     * @param reversed Whether the side searches backward from the goal.
+     * @return The state of the shortest path found in the layer through a state reached by both sides, or
+     *     {@code -1} if there is none.
+     */
+    private long expand(Side side, Side other, boolean reversed) {
+        long meeting = -1;
+        length = Integer.MAX_VALUE;
+        for (int i = 0; i < side.layerSize; i++) {
+            long state = side.layer[i];
+            expandedCount++;
+            int moves = engine.getValidMoves(state);
+            for (int direction = 0; direction < 4; direction++) {
+                if ((moves & 1 << direction) == 0) {
+                    continue;
+                }
+                long next = engine.move(state, direction);
+                if (side.reached.contains(next)) {
+                    continue;
+                }
+                side.add(next, reversed ? RuleEngine.inverse(direction) : direction);
+                int otherDistance = other.reached.get(next);
+                if (otherDistance >= 0 && side.depth + 1 + (otherDistance >>> 2) < length) {
+                    length = side.depth + 1 + (otherDistance >>> 2);
+                    meeting = next;
+                }
+            }
+        }
+        side.advance();
+        return meeting;
+    }
+
+}
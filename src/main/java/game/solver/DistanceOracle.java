@@ -0,0 +1,42 @@
+package game.solver;
+
+import game.model.GameModel;
+import game.model.PlayerDirection;
+
+import java.util.Optional;
+
+/**
+ * Interface for answering hint and solvability queries about the states of a board.
+ */
+public interface DistanceOracle {
+
+    /**
+     * @param state Packed state.
+     * @return Number of moves needed to win, or {@code -1} if the dots can not meet.
+     */
+    int distance(long state);
+
+    /**
+     * @param state Packed state.
+     * @return Boolean depending on whether the dots can still meet.
+     */
+    boolean isSolvable(long state);
+
+    /**
+     * Returns a move leading one step closer to winning.
+     * @param state Packed state.
+     * @return Direction code of the move, or {@code -1} if the game is won or can not be won.
+     */
+    int bestMove(long state);
+
+    /**
+     * Returns a move of the red dot leading one step closer to winning from the current state of the model.
+     * @param model .
+     * @return Direction of the move, or empty if the game is won or can not be won.
+     */
+    default Optional<PlayerDirection> bestMove(GameModel model) {
+        int direction = bestMove(model.getState());
+        return direction < 0 ? Optional.empty() : Optional.of(PlayerDirection.fromCode(direction));
+    }
+
+}
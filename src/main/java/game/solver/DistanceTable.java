@@ -0,0 +1,138 @@
+package game.solver;
+
+import game.model.Level;
+import game.model.RuleEngine;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exact number of moves to win from every state of a board, built once by a retrograde breadth-first search
+ * starting from all winning states.
+ *
+ * <p>Tables are cached per level, which is immutable, so asking for the table of the same level again returns the
+ * already built instance. Only the {@value #CACHE_SIZE} levels asked for last are kept.</p>
+ */
+public class DistanceTable implements DistanceOracle {
+
+    /**
+     * Distance stored for the states from which the dots can not meet.
+     */
+    public static final short UNSOLVABLE = -1;
+
+    private static final int CACHE_SIZE = 16;
+
+    /**
+     * Tables by level, in the order of their last use.
+     */
+    private static final Map<Level, DistanceTable> CACHE = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Level, DistanceTable> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final RuleEngine engine;
+
+    private final short[] distances;
+
+    private DistanceTable(RuleEngine engine, short[] distances) {
+        this.engine = engine;
+        this.distances = distances;
+    }
+
+    /**
+     * Returns the table of the board of the given level, building it on first use.
+     * @param level .
+     * @return DistanceTable object.
+     */
+    public static DistanceTable of(Level level) {
+        synchronized (CACHE) {
+            var table = CACHE.get(level);
+            if (table != null) {
+                return table;
+            }
+        }
+        // built without holding the lock, so tables of other levels can be looked up meanwhile
+        var table = build(level.getEngine());
+        synchronized (CACHE) {
+            var existing = CACHE.putIfAbsent(level, table);
+            return existing != null ? existing : table;
+        }
+    }
+
+    /**
+     * Builds the table of the given board without caching it.
+     * @param engine .
+     * @return DistanceTable object.
+     */
+    public static DistanceTable build(RuleEngine engine) {
+        if (engine.getStateCount() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Board is too large for an in-memory distance table");
+        }
+        var distances = new short[(int) engine.getStateCount()];
+        Arrays.fill(distances, UNSOLVABLE);
+        var queue = new int[distances.length];
+        int tail = 0;
+        for (int cell = 0; cell < engine.getCellCount(); cell++) {
+            int state = (int) engine.state(cell, cell);
+            distances[state] = 0;
+            queue[tail++] = state;
+        }
+        for (int head = 0; head < tail; head++) {
+            int state = queue[head];
+            int red = engine.redCell(state);
+            int blue = engine.blueCell(state);
+            for (int direction = 0; direction < 4; direction++) {
+                int previousRed = engine.neighbour(red, RuleEngine.inverse(direction));
+                int previousBlue = engine.neighbour(blue, direction);
+                if (previousRed < 0 || previousBlue < 0) {
+                    continue;
+                }
+                int previous = (int) engine.state(previousRed, previousBlue);
+                if (distances[previous] == UNSOLVABLE && engine.isValidMove(previous, direction)) {
+                    if (distances[state] == Short.MAX_VALUE) {
+                        throw new IllegalStateException("Distance does not fit into the table");
+                    }
+                    distances[previous] = (short) (distances[state] + 1);
+                    queue[tail++] = previous;
+                }
+            }
+        }
+        return new DistanceTable(engine, distances);
+    }
+
+    public RuleEngine getEngine() {
+        return engine;
+    }
+
+    @Override
+    public int distance(long state) {
+        return distances[(int) state];
+    }
+
+    @Override
+    public boolean isSolvable(long state) {
+        return distances[(int) state] != UNSOLVABLE;
+    }
+
+    @Override
+    public int bestMove(long state) {
+        int distance = distances[(int) state];
+        if (distance <= 0) {
+            return -1;
+        }
+        int moves = engine.getValidMoves(state);
+        for (int direction = 0; direction < 4; direction++) {
+            if ((moves & 1 << direction) != 0 && distances[(int) engine.move(state, direction)] == distance - 1) {
+                return direction;
+            }
+        }
+        throw new AssertionError();
+    }
+
+}
@@ -0,0 +1,328 @@
+package game.solver;
+
+import game.model.GameModel;
+import game.model.RuleEngine;
+import game.model.WallIndex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.tinylog.Logger;
+
+/**
+ * On-disk distance-to-goal database of a board, read back through memory-mapped segments of the file, so boards
+ * with far more states than the heap can hold are supported and opening the database does not read it.
+ *
+ * <p>Every state takes 4 bits: the distance to winning modulo {@value #MODULUS}, or {@value #UNSOLVABLE} if
+ * the dots can not meet. Since every move can be taken back, the distances of neighbouring states differ by at
+ * most one, so the best move is the one to the state with the previous code, and the exact distance is found by
+ * following the best moves.</p>
+ *
+ * <p>The file starts with a {@value #HEADER_SIZE} byte header: magic number, format version, board size, a
+ * reserved int, number of states and the {@link WallIndex#digest() digest} of the walls; followed by two states
+ * per byte, the even state in the low nibble.</p>
+ */
+public class EndgameDatabase implements DistanceOracle, AutoCloseable {
+
+    private static final int MAGIC = 0x49444442;
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 56;
+
+    private static final int DIGEST_SIZE = 32;
+
+    private static final int FRONTIER_BUFFER_SIZE = 1 << 20;
+
+    private static final int MODULUS = 15;
+
+    private static final int UNSOLVABLE = 15;
+
+    private static final int SEGMENT_BITS = 30;
+
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    private final RuleEngine engine;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer[] segments;
+
+    private EndgameDatabase(RuleEngine engine, FileChannel channel, FileChannel.MapMode mode) throws IOException {
+        this.engine = engine;
+        this.channel = channel;
+        long length = HEADER_SIZE + (engine.getStateCount() + 1) / 2;
+        segments = new MappedByteBuffer[(int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+        for (int i = 0; i < segments.length; i++) {
+            long offset = (long) i << SEGMENT_BITS;
+            segments[i] = channel.map(mode, offset, Math.min(SEGMENT_SIZE, length - offset));
+        }
+    }
+
+    /**
+     * Opens an existing database of the given board.
+     * @param engine Rule engine of the board the database was built for.
+     * @param file .
+     * @return EndgameDatabase object.
+     * @throws IOException if the file can not be read or belongs to another board.
+     */
+    public static EndgameDatabase open(RuleEngine engine, Path file) throws IOException {
+        var channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            var header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() != HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION
+                    || header.getInt() != engine.getSize() || header.getInt() != 0
+                    || header.getLong() != engine.getStateCount()) {
+                throw new IOException("Not an endgame database of this board: " + file);
+            }
+            var digest = new byte[DIGEST_SIZE];
+            header.get(digest);
+            if (!Arrays.equals(digest, engine.getWalls().digest())) {
+                throw new IOException("Endgame database of other walls: " + file);
+            }
+            return new EndgameDatabase(engine, channel, FileChannel.MapMode.READ_ONLY);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Builds the database of the given board into the given file by a retrograde breadth-first search, keeping
+     * the states of the distance being expanded and of the next one in temporary files next to it instead of a
+     * queue in memory, so every state is expanded once.
+     * @param engine .
+     * @param file .
+     * @return EndgameDatabase object opened on the built file.
+     * @throws IOException if the file can not be written.
+     */
+    public static EndgameDatabase build(RuleEngine engine, Path file) throws IOException {
+        var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            var header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(engine.getSize())
+                    .putInt(0)
+                    .putLong(engine.getStateCount())
+                    .put(engine.getWalls().digest())
+                    .flip();
+            channel.write(header);
+            var unsolvable = ByteBuffer.allocate(1 << 20);
+            long remaining = (engine.getStateCount() + 1) / 2;
+            while (remaining > 0) {
+                while (unsolvable.hasRemaining()) {
+                    unsolvable.put((byte) 0xFF);
+                }
+                unsolvable.flip().limit((int) Math.min(unsolvable.capacity(), remaining));
+                remaining -= channel.write(unsolvable);
+                unsolvable.clear();
+            }
+            var database = new EndgameDatabase(engine, channel, FileChannel.MapMode.READ_WRITE);
+            try (var current = new Frontier(file.resolveSibling(file.getFileName() + ".frontier0"));
+                 var next = new Frontier(file.resolveSibling(file.getFileName() + ".frontier1"))) {
+                database.fill(current, next);
+            }
+            for (var segment : database.segments) {
+                segment.force();
+            }
+            return database;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void fill(Frontier current, Frontier next) throws IOException {
+        for (int cell = 0; cell < engine.getCellCount(); cell++) {
+            long state = engine.state(cell, cell);
+            setCode(state, 0);
+            current.add(state);
+        }
+        for (int distance = 0; current.size() > 0; distance++) {
+            int nextCode = (distance + 1) % MODULUS;
+            current.startReading();
+            for (long i = current.size(); i > 0; i--) {
+                long state = current.next();
+                int red = engine.redCell(state);
+                int blue = engine.blueCell(state);
+                for (int direction = 0; direction < 4; direction++) {
+                    int previousRed = engine.neighbour(red, RuleEngine.inverse(direction));
+                    int previousBlue = engine.neighbour(blue, direction);
+                    if (previousRed < 0 || previousBlue < 0) {
+                        continue;
+                    }
+                    long previous = engine.state(previousRed, previousBlue);
+                    if (getCode(previous) == UNSOLVABLE && engine.isValidMove(previous, direction)) {
+                        setCode(previous, nextCode);
+                        next.add(previous);
+                    }
+                }
+            }
+            Logger.debug("Endgame database: distance {} done, {} states at the next", distance, next.size());
+            var expanded = current;
+            current = next;
+            next = expanded;
+            next.clear();
+        }
+    }
+
+    /**
+     * States of one distance of the search, appended to a temporary file through a buffer and read back in order.
+     */
+    private static final class Frontier implements AutoCloseable {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(FRONTIER_BUFFER_SIZE);
+
+        private long size;
+
+        Frontier(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        long size() {
+            return size;
+        }
+
+        void add(long state) throws IOException {
+            if (!buffer.hasRemaining()) {
+                writeBuffer();
+            }
+            buffer.putLong(state);
+            size++;
+        }
+
+        private void writeBuffer() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Writes the buffered states and starts reading the states from the first one.
+         */
+        void startReading() throws IOException {
+            writeBuffer();
+            channel.position(0);
+            buffer.flip();
+        }
+
+        long next() throws IOException {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read;
+                do {
+                    read = channel.read(buffer);
+                } while (read >= 0 && buffer.hasRemaining());
+                buffer.flip();
+            }
+            return buffer.getLong();
+        }
+
+        /**
+         * Removes every state, to be written again.
+         */
+        void clear() throws IOException {
+            channel.truncate(0);
+            channel.position(0);
+            buffer.clear();
+            size = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private int getCode(long state) {
+        long index = HEADER_SIZE + (state >>> 1);
+        int value = segments[(int) (index >>> SEGMENT_BITS)].get((int) (index & (SEGMENT_SIZE - 1)));
+        return (state & 1) == 0 ? value & 0x0F : (value >>> 4) & 0x0F;
+    }
+
+    private void setCode(long state, int code) {
+        long index = HEADER_SIZE + (state >>> 1);
+        var segment = segments[(int) (index >>> SEGMENT_BITS)];
+        int offset = (int) (index & (SEGMENT_SIZE - 1));
+        int value = segment.get(offset);
+        value = (state & 1) == 0 ? (value & 0xF0) | code : (value & 0x0F) | code << 4;
+        segment.put(offset, (byte) value);
+    }
+
+    public RuleEngine getEngine() {
+        return engine;
+    }
+
+    @Override
+    public boolean isSolvable(long state) {
+        return getCode(state) != UNSOLVABLE;
+    }
+
+    @Override
+    public int bestMove(long state) {
+        int code = getCode(state);
+        if (code == UNSOLVABLE || engine.isWon(state)) {
+            return -1;
+        }
+        int previousCode = (code + MODULUS - 1) % MODULUS;
+        int moves = engine.getValidMoves(state);
+        for (int direction = 0; direction < 4; direction++) {
+            if ((moves & 1 << direction) != 0 && getCode(engine.move(state, direction)) == previousCode) {
+                return direction;
+            }
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * Returns the exact distance by following the best moves, which takes as many lookups as the distance.
+     * @param state Packed state.
+     * @return Number of moves needed to win, or {@code -1} if the dots can not meet.
+     */
+    @Override
+    public int distance(long state) {
+        if (!isSolvable(state)) {
+            return -1;
+        }
+        int distance = 0;
+        for (int direction = bestMove(state); direction >= 0; direction = bestMove(state)) {
+            state = engine.move(state, direction);
+            distance++;
+        }
+        return distance;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Builds the database of the built-in level, or of an empty board of the given size.
+     * @param args Path of the database file, and optionally the board size.
+     * @throws IOException if the file can not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        var engine = args.length > 1
+                ? new RuleEngine(WallIndex.empty(Integer.parseInt(args[1])))
+                : new GameModel().getEngine();
+        try (var database = build(engine, Path.of(args[0]))) {
+            Logger.info("Built endgame database of {} states", database.getEngine().getStateCount());
+        }
+    }
+
+}
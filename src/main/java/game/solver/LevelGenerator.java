@@ -0,0 +1,182 @@
+package game.solver;
+
+import game.model.Level;
+import game.model.LevelLoader;
+import game.model.Position;
+import game.model.RuleEngine;
+import game.model.WallIndex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.tinylog.Logger;
+
+/**
+ * Generator of random levels whose shortest solution has a length within a requested range.
+ *
+ * <p>Candidates get random walls and random starting squares of the dots, and are solved by breadth-first search.
+ * They are evaluated in parallel on the common fork-join pool, in rounds of consecutive candidate numbers, every
+ * thread reusing its own wall bitset, rule engine and {@link BfsSolver} buffers, so a rejected candidate allocates
+ * nothing but its random generator. Candidate {@code i} is built from the seed and {@code i} alone, and the kept
+ * levels are taken in candidate order, so the result does not depend on the number of threads.</p>
+ */
+public class LevelGenerator {
+
+    /**
+     * Number of candidates evaluated in parallel in a round.
+     */
+    private static final int ROUND_SIZE = 4096;
+
+    /**
+     * Number of rounds in a row without a level after which the range is considered out of reach.
+     */
+    private static final int MAX_EMPTY_ROUNDS = 256;
+
+    private final int size;
+
+    private final double wallDensity;
+
+    private final int minDistance;
+
+    private final int maxDistance;
+
+    private final ThreadLocal<Worker> workers;
+
+    /**
+     * Creates a generator.
+     * @param size Size of the boards.
+     * @param wallDensity Probability of a wall between two neighbouring squares.
+     * @param minDistance Minimum length of the shortest solution.
+     * @param maxDistance Maximum length of the shortest solution.
+     */
+    public LevelGenerator(int size, double wallDensity, int minDistance, int maxDistance) {
+        if (size < 2 || wallDensity < 0 || wallDensity > 1 || minDistance < 1 || maxDistance < minDistance) {
+            throw new IllegalArgumentException();
+        }
+        this.size = size;
+        this.wallDensity = wallDensity;
+        this.minDistance = minDistance;
+        this.maxDistance = maxDistance;
+        workers = ThreadLocal.withInitial(() -> new Worker(size));
+    }
+
+    /**
+     * Walls of the candidate of a thread, with a rule engine and a solver seeing them as they change.
+     */
+    private static final class Worker {
+
+        private final WallIndex.Builder walls;
+
+        private final RuleEngine engine;
+
+        private final BfsSolver solver;
+
+        Worker(int size) {
+            walls = WallIndex.builder(size);
+            engine = new RuleEngine(walls.view());
+            solver = new BfsSolver(engine);
+        }
+    }
+
+    /**
+     * Generates levels.
+     * @param count Number of levels.
+     * @param firstId Id of the first level, the others numbered consecutively.
+     * @param seed .
+     * @return List of the levels.
+     * @throws IllegalStateException if no candidate is kept for {@value #MAX_EMPTY_ROUNDS} rounds.
+     */
+    public List<Level> generate(int count, int firstId, long seed) {
+        List<Level> levels = new ArrayList<>(count);
+        int emptyRounds = 0;
+        for (long round = 0; levels.size() < count; round++) {
+            int kept = levels.size();
+            long first = round * ROUND_SIZE;
+            var candidates = IntStream.range(0, ROUND_SIZE)
+                    .parallel()
+                    .mapToObj(i -> candidate(seed, first + i))
+                    .toArray(Candidate[]::new);
+            for (var candidate : candidates) {
+                if (candidate != null && levels.size() < count) {
+                    int id = firstId + levels.size();
+                    levels.add(new Level(id, "Generated " + id + " (" + candidate.distance() + " moves)",
+                            candidate.engine(), candidate.red(), candidate.blue()));
+                }
+            }
+            Logger.debug("Generator round {}: {} of {} levels", round, levels.size(), count);
+            emptyRounds = levels.size() == kept ? emptyRounds + 1 : 0;
+            if (emptyRounds == MAX_EMPTY_ROUNDS) {
+                throw new IllegalStateException("No level of " + minDistance + " to " + maxDistance + " moves found");
+            }
+        }
+        return levels;
+    }
+
+    private record Candidate(RuleEngine engine, Position red, Position blue, int distance) {
+    }
+
+    /**
+     * Builds and solves a candidate.
+     * @param seed .
+     * @param number Number of the candidate.
+     * @return Candidate object, or {@code null} if its shortest solution is not in the requested range.
+     */
+    private Candidate candidate(long seed, long number) {
+        var random = new SplittableRandom(seed ^ number * 0x9E3779B97F4A7C15L);
+        var worker = workers.get();
+        var walls = worker.walls.clear();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int cell = row * size + col;
+                if (col + 1 < size && random.nextDouble() < wallDensity) {
+                    walls.addRightOf(cell);
+                }
+                if (row + 1 < size && random.nextDouble() < wallDensity) {
+                    walls.addBelow(cell);
+                }
+            }
+        }
+        int red = random.nextInt(size * size);
+        int blue;
+        do {
+            blue = random.nextInt(size * size);
+            // the dots only meet if the differences of their rows and columns are both even
+        } while (blue == red || (red / size - blue / size) % 2 != 0 || (red % size - blue % size) % 2 != 0);
+        int distance = worker.solver.distance(worker.engine.state(red, blue));
+        if (distance < minDistance || distance > maxDistance) {
+            return null;
+        }
+        // a kept level gets walls of its own, the worker's change with its next candidate
+        var engine = new RuleEngine(walls.build());
+        return new Candidate(engine, engine.position(red), engine.position(blue), distance);
+    }
+
+    /**
+     * Generates levels into a directory, as files named after their ids.
+     * @param args Board size, number of levels, minimum and maximum solution length, and optionally the wall
+     *             density, the seed and the output directory.
+     * @throws IOException if a file can not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int size = Integer.parseInt(args[0]);
+        int count = Integer.parseInt(args[1]);
+        var generator = new LevelGenerator(size, args.length > 4 ? Double.parseDouble(args[4]) : 0.2,
+                Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+        var directory = Path.of(args.length > 6 ? args[6] : "levels");
+        Files.createDirectories(directory);
+        long start = System.nanoTime();
+        var levels = generator.generate(count, 1, seed);
+        for (var level : levels) {
+            LevelLoader.write(level, directory.resolve("level-" + level.getId() + ".json"));
+        }
+        Logger.info("Generated {} levels in {} ms with seed {}", levels.size(), (System.nanoTime() - start) / 1_000_000,
+                seed);
+    }
+
+}
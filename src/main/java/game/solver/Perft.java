@@ -0,0 +1,229 @@
+package game.solver;
+
+import game.model.GameModel;
+import game.model.PlayerDirection;
+import game.model.RuleEngine;
+import game.model.ZobristKeys;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Move-tree enumeration counting the move sequences of a given depth from a position, as chess engines do to
+ * measure and check their move generation.
+ *
+ * <p>A game ends as soon as the dots meet, so a won state has no moves and only counts as a leaf at the full
+ * depth. The parallel count splits the tree from the root on a fork-join pool down to
+ * {@value #SEQUENTIAL_DEPTH} moves from the leaves, below which subtrees are counted without splitting.</p>
+ *
+ * <p>Given a {@link TranspositionTable}, the counts of subtrees at least {@value #MIN_HASHED_DEPTH} moves deep
+ * are stored by the Zobrist key of their state, with their depth, and reused when the same state is reached
+ * again by another move order, by any of the threads.</p>
+ */
+public class Perft {
+
+    /**
+     * Remaining depth at or below which a subtree is counted without splitting it.
+     */
+    private static final int SEQUENTIAL_DEPTH = 10;
+
+    /**
+     * Smallest remaining depth whose counts are stored in the transposition table.
+     */
+    private static final int MIN_HASHED_DEPTH = 3;
+
+    private final RuleEngine engine;
+
+    private final ForkJoinPool pool;
+
+    private final TranspositionTable table;
+
+    private final ZobristKeys zobristKeys;
+
+    /**
+     * Creates a move counter on the common fork-join pool.
+     * @param engine .
+     */
+    public Perft(RuleEngine engine) {
+        this(engine, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a move counter.
+     * @param engine .
+     * @param pool Pool of the parallel count.
+     */
+    public Perft(RuleEngine engine, ForkJoinPool pool) {
+        this(engine, pool, null);
+    }
+
+    /**
+     * Creates a move counter reusing the counts of subtrees.
+     * @param engine .
+     * @param pool Pool of the parallel count.
+     * @param table Table of the counts of subtrees, or {@code null} to count every subtree.
+     */
+    public Perft(RuleEngine engine, ForkJoinPool pool, TranspositionTable table) {
+        this.engine = engine;
+        this.pool = pool;
+        this.table = table;
+        this.zobristKeys = ZobristKeys.of(engine.getSize());
+    }
+
+    public RuleEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Counts the move sequences of the given depth on the calling thread.
+     * @param state Packed state.
+     * @param depth Number of moves.
+     * @return Number of move sequences.
+     */
+    public long count(long state, int depth) {
+        return count(state, zobristKeys.key(state), depth);
+    }
+
+    private long count(long state, long key, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (engine.isWon(state)) {
+            return 0;
+        }
+        int moves = engine.getValidMoves(state);
+        if (depth == 1) {
+            return Integer.bitCount(moves);
+        }
+        boolean hashed = table != null && depth >= MIN_HASHED_DEPTH;
+        if (hashed) {
+            long entry = table.probe(key);
+            if (entry != TranspositionTable.MISSING && TranspositionTable.depth(entry) == depth) {
+                return TranspositionTable.value(entry);
+            }
+        }
+        long nodes = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            if ((moves & 1 << direction) != 0) {
+                nodes += count(engine.move(state, direction), zobristKeys.move(key, state, direction), depth - 1);
+            }
+        }
+        if (hashed && nodes <= TranspositionTable.MAX_VALUE) {
+            table.store(key, depth, nodes, TranspositionTable.NO_MOVE, TranspositionTable.EXACT);
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the move sequences of the given depth in parallel.
+     * @param state Packed state.
+     * @param depth Number of moves.
+     * @return Number of move sequences.
+     */
+    public long parallelCount(long state, int depth) {
+        return pool.invoke(new CountTask(state, zobristKeys.key(state), depth));
+    }
+
+    /**
+     * Counts the move sequences of the given depth starting with each move of the current state of a model, in
+     * parallel.
+     * @param model .
+     * @param depth Number of moves, at least 1.
+     * @return Number of move sequences by the direction of the red dot's first move, codes without a valid move
+     *     have 0.
+     */
+    public long[] divide(GameModel model, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth " + depth);
+        }
+        long state = model.getState();
+        long key = zobristKeys.key(state);
+        var counts = new long[4];
+        if (engine.isWon(state)) {
+            return counts;
+        }
+        int moves = engine.getValidMoves(state);
+        List<CountTask> tasks = new ArrayList<>();
+        for (int direction = 0; direction < 4; direction++) {
+            if ((moves & 1 << direction) != 0) {
+                tasks.add(new CountTask(engine.move(state, direction), zobristKeys.move(key, state, direction),
+                        depth - 1));
+            }
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        int task = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            if ((moves & 1 << direction) != 0) {
+                counts[direction] = tasks.get(task++).join();
+            }
+        }
+        return counts;
+    }
+
+    private class CountTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long state;
+
+        private final long key;
+
+        private final int depth;
+
+        CountTask(long state, long key, int depth) {
+            this.state = state;
+            this.key = key;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SEQUENTIAL_DEPTH || engine.isWon(state)) {
+                return count(state, key, depth);
+            }
+            int moves = engine.getValidMoves(state);
+            List<CountTask> tasks = new ArrayList<>(4);
+            for (int direction = 0; direction < 4; direction++) {
+                if ((moves & 1 << direction) != 0) {
+                    tasks.add(new CountTask(engine.move(state, direction), zobristKeys.move(key, state, direction),
+                            depth - 1));
+                }
+            }
+            long nodes = 0;
+            for (var task : invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Counts the move sequences of the given depth by making and taking back the moves on the model itself,
+     * checking every direction with {@link GameModel#isValidMove(PlayerDirection)}. Slow, it is the reference
+     * optimized move generation is checked against.
+     * @param model .
+     * @param depth Number of moves.
+     * @return Number of move sequences, the model is left in the state it was in.
+     */
+    public static long countOnModel(GameModel model, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (model.getEngine().isWon(model.getState())) {
+            return 0;
+        }
+        long nodes = 0;
+        for (var direction : PlayerDirection.values()) {
+            if (model.isValidMove(direction)) {
+                model.move(direction, direction.inverse());
+                nodes += countOnModel(model, depth - 1);
+                model.undo();
+            }
+        }
+        return nodes;
+    }
+
+}
@@ -0,0 +1,45 @@
+package game.solver;
+
+import game.model.GameModel;
+import game.model.PlayerDirection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interface for searching the shortest move sequence to a state where both dots are on the same square.
+ */
+public interface Solver {
+
+    /**
+     * Returns the shortest move sequence from the given state.
+     * @param start Packed state.
+     * @return Direction codes of the red dot's moves, or {@code null} if the dots can not meet.
+     */
+    int[] solve(long start);
+
+    /**
+     * Returns the length of the shortest move sequence from the given state.
+     * @param start Packed state.
+     * @return Number of moves, or {@code -1} if the dots can not meet.
+     */
+    int distance(long start);
+
+    /**
+     * Returns the shortest move sequence from the current state of the model.
+     * @param model .
+     * @return Directions of the red dot's moves, or empty if the dots can not meet.
+     */
+    default Optional<List<PlayerDirection>> solve(GameModel model) {
+        return Optional.ofNullable(solve(model.getState()))
+                .map(moves -> {
+                    List<PlayerDirection> directions = new ArrayList<>(moves.length);
+                    for (var move : moves) {
+                        directions.add(PlayerDirection.fromCode(move));
+                    }
+                    return directions;
+                });
+    }
+
+}
@@ -0,0 +1,80 @@
+package game.solver;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of packed states by a long priority, kept in two parallel primitive arrays.
+ */
+final class StateHeap {
+
+    private long[] priorities = new long[64];
+
+    private long[] states = new long[64];
+
+    private int size;
+
+    void push(long priority, long state) {
+        if (size == states.length) {
+            priorities = Arrays.copyOf(priorities, size * 2);
+            states = Arrays.copyOf(states, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            priorities[i] = priorities[parent];
+            states[i] = states[parent];
+            i = parent;
+        }
+        priorities[i] = priority;
+        states[i] = state;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Priority of the first state.
+     */
+    long peekPriority() {
+        return priorities[0];
+    }
+
+    /**
+     * Removes the state of the smallest priority.
+     * @return The removed state.
+     */
+    long pop() {
+        long first = states[0];
+        size--;
+        long priority = priorities[size];
+        long state = states[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+                child++;
+            }
+            if (priority <= priorities[child]) {
+                break;
+            }
+            priorities[i] = priorities[child];
+            states[i] = states[child];
+            i = child;
+        }
+        priorities[i] = priority;
+        states[i] = state;
+        return first;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+}
@@ -0,0 +1,108 @@
+package game.solver;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from packed states to non-negative ints, for searches visiting a small part of boards
+ * with too many states for tables indexed by the state. Keys and values are kept in primitive arrays, so a
+ * visited state takes 12 bytes at most twice over and no object is allocated per state.
+ */
+final class StateMap {
+
+    private static final long EMPTY = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    StateMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int size) {
+        // load factor of at most one half
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private static int hash(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (key ^ (key >>> 33));
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @param key Packed state.
+     * @return Value of the state, or {@code -1} if it is not in the map.
+     */
+    int get(long key) {
+        int slot = slot(key);
+        return keys[slot] == EMPTY ? -1 : values[slot];
+    }
+
+    boolean contains(long key) {
+        return keys[slot(key)] != EMPTY;
+    }
+
+    /**
+     * Sets the value of a state.
+     * @param key Packed state.
+     * @param value Non-negative value.
+     */
+    void put(long key, int value) {
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+                slot = slot(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    private void grow() {
+        var oldKeys = keys;
+        var oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes every state, keeping the arrays for the next search.
+     */
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+}
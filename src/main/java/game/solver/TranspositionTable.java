@@ -0,0 +1,168 @@
+package game.solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size transposition table of search results by the {@link game.model.ZobristKeys Zobrist key} of the
+ * state, shared by search threads without locking.
+ *
+ * <p>An entry takes two longs: the data, packing the value, the depth it was searched to, the best move, the kind
+ * of bound the value is and the generation of the search, and the key exclusive or the data. Writers do not lock,
+ * so entries written at the same time may mix the longs of two writes, which is caught on probing since the key
+ * no longer matches the data. The table is open addressed with a single slot per key: an entry replaces the one
+ * in its slot, of the same key or another, only if it was searched at least as deep, or the old one is left from
+ * an earlier search.</p>
+ *
+ * <p>The table serves depth-limited searches reaching the same states by many move orders, such as {@link Perft}.
+ * The solvers are best-first searches that must remember every state they reached exactly, so they keep their
+ * own maps instead.</p>
+ */
+public class TranspositionTable {
+
+    /**
+     * The value is exact.
+     */
+    public static final int EXACT = 0;
+
+    /**
+     * The value is a lower bound.
+     */
+    public static final int LOWER_BOUND = 1;
+
+    /**
+     * The value is an upper bound.
+     */
+    public static final int UPPER_BOUND = 2;
+
+    /**
+     * Move stored when there is no best move.
+     */
+    public static final int NO_MOVE = -1;
+
+    /**
+     * Returned by {@link #probe(long)} when the key has no entry.
+     */
+    public static final long MISSING = 0;
+
+    private static final int VALUE_BITS = 40;
+
+    /**
+     * Largest value an entry can hold, the smallest is its negative.
+     */
+    public static final long MAX_VALUE = (1L << (VALUE_BITS - 1)) - 1;
+
+    private static final int DEPTH_SHIFT = 40;
+
+    private static final int MOVE_SHIFT = 48;
+
+    private static final int BOUND_SHIFT = 51;
+
+    private static final int GENERATION_SHIFT = 53;
+
+    private static final int GENERATION_MASK = 0x3F;
+
+    private static final long PRESENT = 1L << 63;
+
+    private final AtomicLongArray entries;
+
+    private final int mask;
+
+    private volatile int generation;
+
+    /**
+     * Creates an empty table.
+     * @param capacity Number of entries, rounded up to a power of two.
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity < 1 || capacity > 1 << 29) {
+            throw new IllegalArgumentException("Capacity " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity * 2 - 1);
+        entries = new AtomicLongArray(2 * size);
+        mask = size - 1;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Starts a new search, letting its entries replace the ones of earlier searches regardless of their depth.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * Looks up the entry of a key.
+     * @param key Zobrist key.
+     * @return The entry read by {@link #value(long)}, {@link #depth(long)}, {@link #move(long)} and
+     *     {@link #bound(long)}, or {@value #MISSING} if the key has none.
+     */
+    public long probe(long key) {
+        int i = 2 * ((int) key & mask);
+        long check = entries.getOpaque(i);
+        long data = entries.getOpaque(i + 1);
+        return data != MISSING && (check ^ data) == key ? data : MISSING;
+    }
+
+    /**
+     * Stores the result of a search, unless the slot of the key holds a deeper result from the current search,
+     * of the same key or another.
+     * @param key Zobrist key.
+     * @param depth Depth searched, 0 to 255.
+     * @param value Value found, at most {@value #MAX_VALUE} in absolute value.
+     * @param move Best move 0 to 3, or {@value #NO_MOVE}.
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}.
+     */
+    public void store(long key, int depth, long value, int move, int bound) {
+        if (depth < 0 || depth > 0xFF || Math.abs(value) > MAX_VALUE || move < NO_MOVE || move > 3
+                || bound < EXACT || bound > UPPER_BOUND) {
+            throw new IllegalArgumentException("Invalid entry: " + depth + ", " + value + ", " + move + ", " + bound);
+        }
+        int i = 2 * ((int) key & mask);
+        int currentGeneration = generation;
+        long stored = entries.getOpaque(i + 1);
+        if (stored != MISSING && generation(stored) == currentGeneration && depth(stored) > depth) {
+            return;
+        }
+        long data = PRESENT
+                | (long) currentGeneration << GENERATION_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) (move + 1) << MOVE_SHIFT
+                | (long) depth << DEPTH_SHIFT
+                | value & ((1L << VALUE_BITS) - 1);
+        entries.setOpaque(i, key ^ data);
+        entries.setOpaque(i + 1, data);
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.setOpaque(i, 0);
+        }
+    }
+
+    public static long value(long entry) {
+        return entry << (64 - VALUE_BITS) >> (64 - VALUE_BITS);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int move(long entry) {
+        return ((int) (entry >>> MOVE_SHIFT) & 0x7) - 1;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+
+}
@@ -0,0 +1,86 @@
+import game.model.*;
+import game.solver.AStarSolver;
+import game.solver.BfsSolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AStarSolverTest {
+
+    static WallIndex randomWalls(int size, double density, long seed) {
+        var random = new SplittableRandom(seed);
+        var builder = WallIndex.builder(size);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (col + 1 < size && random.nextDouble() < density) {
+                    builder.add(new Position(row, col), new Position(row, col + 1));
+                }
+                if (row + 1 < size && random.nextDouble() < density) {
+                    builder.add(new Position(row, col), new Position(row + 1, col));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    void assertSolution(RuleEngine engine, long start, int[] moves, int distance) {
+        assertEquals(distance, moves.length);
+        long state = start;
+        for (var move : moves) {
+            assertFalse(engine.isWon(state));
+            assertTrue(engine.isValidMove(state, move));
+            state = engine.move(state, move);
+        }
+        assertTrue(engine.isWon(state));
+    }
+
+    @Test
+    void distance_shouldMatchBfsOnEveryState() {
+        for (var engine : new RuleEngine[] {LevelLoader.builtIn().getEngine(),
+                new RuleEngine(randomWalls(6, 0.3, 1))}) {
+            var bfs = new BfsSolver(engine);
+            var solver = new AStarSolver(engine);
+            for (long state = 0; state < engine.getStateCount(); state++) {
+                int distance = bfs.distance(state);
+                assertEquals(distance, solver.distance(state), "state " + state);
+                if (distance >= 0) {
+                    assertSolution(engine, state, solver.solve(state), distance);
+                } else {
+                    assertNull(solver.solve(state));
+                }
+            }
+        }
+    }
+
+    @Test
+    void heuristic() {
+        var engine = new RuleEngine(WallIndex.empty(7));
+        var solver = new AStarSolver(engine);
+        assertEquals(3, solver.heuristic(engine.state(engine.cell(new Position(0, 0)), engine.cell(new Position(2, 4)))));
+        assertEquals(0, solver.heuristic(engine.state(10, 10)));
+    }
+
+    @Test
+    void solve_shouldVisitFewStatesOfLargeBoard() {
+        var engine = new RuleEngine(randomWalls(1000, 0.05, 7));
+        var solver = new AStarSolver(engine);
+        long start = engine.state(engine.cell(new Position(100, 120)), engine.cell(new Position(900, 860)));
+        var moves = solver.solve(start);
+        assertNotNull(moves);
+        assertSolution(engine, start, moves, moves.length);
+        assertTrue(moves.length >= solver.heuristic(start));
+        assertTrue(solver.getExpandedCount() < engine.getCellCount() / 10, "expanded " + solver.getExpandedCount());
+    }
+
+    @Test
+    void distance_shouldPruneByParity() {
+        var engine = new RuleEngine(randomWalls(1000, 0.05, 7));
+        var solver = new AStarSolver(engine);
+        assertEquals(-1, solver.distance(engine.state(0, 1)));
+        assertEquals(0, solver.getExpandedCount());
+    }
+
+}
@@ -0,0 +1,53 @@
+import game.model.*;
+import game.solver.BfsSolver;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BfsSolverTest {
+
+    GameModel gameModel;
+    BfsSolver solver;
+
+    @BeforeEach
+    void init() {
+        gameModel = new GameModel();
+        solver = new BfsSolver(gameModel.getEngine());
+    }
+
+    @Test
+    void solve() {
+        var solution = solver.solve(gameModel).orElseThrow();
+        for (var direction : solution) {
+            assertTrue(gameModel.isValidMove(direction));
+            gameModel.move(direction, direction.inverse());
+        }
+        assertEquals(gameModel.getDotPosition(0), gameModel.getDotPosition(1));
+        assertEquals(solution.size(), solver.distance(new GameModel().getState()));
+    }
+
+    @Test
+    void solve_shouldReturnEmptyWhenAlreadyWon() {
+        var engine = gameModel.getEngine();
+        assertEquals(0, solver.solve(engine.state(10, 10)).length);
+        assertEquals(0, solver.distance(engine.state(10, 10)));
+    }
+
+    @Test
+    void distance() {
+        var engine = new RuleEngine(WallIndex.empty(7));
+        var emptySolver = new BfsSolver(engine);
+        assertEquals(1, emptySolver.distance(engine.state(engine.cell(new Position(3, 1)), engine.cell(new Position(3, 3)))));
+        assertEquals(3, emptySolver.distance(engine.state(engine.cell(new Position(0, 0)), engine.cell(new Position(2, 4)))));
+    }
+
+    @Test
+    void distance_shouldReturnMinusOneWhenUnsolvable() {
+        var engine = gameModel.getEngine();
+        assertEquals(-1, solver.distance(engine.state(engine.cell(new Position(0, 0)), engine.cell(new Position(0, 1)))));
+        assertNull(solver.solve(engine.state(engine.cell(new Position(0, 0)), engine.cell(new Position(0, 1)))));
+    }
+
+}
@@ -18,4 +18,12 @@ public class DirectionTest {
         assertThrows(IllegalArgumentException.class, () -> PlayerDirection.of(0, 0));
     }
 
+    @Test
+    void inverse() {
+        assertSame(PlayerDirection.DOWN, PlayerDirection.UP.inverse());
+        assertSame(PlayerDirection.UP, PlayerDirection.DOWN.inverse());
+        assertSame(PlayerDirection.RIGHT, PlayerDirection.LEFT.inverse());
+        assertSame(PlayerDirection.LEFT, PlayerDirection.RIGHT.inverse());
+    }
+
 }
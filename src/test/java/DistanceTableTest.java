@@ -0,0 +1,57 @@
+import game.model.GameModel;
+import game.model.LevelLoader;
+import game.model.RuleEngine;
+import game.solver.BfsSolver;
+import game.solver.DistanceTable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistanceTableTest {
+
+    RuleEngine engine;
+    DistanceTable table;
+
+    @BeforeEach
+    void init() {
+        engine = new GameModel().getEngine();
+        table = DistanceTable.of(LevelLoader.builtIn());
+    }
+
+    @Test
+    void distance() {
+        var solver = new BfsSolver(engine);
+        for (long state = 0; state < engine.getStateCount(); state++) {
+            assertEquals(solver.distance(state), table.distance(state));
+        }
+    }
+
+    @Test
+    void bestMove() {
+        for (long state = 0; state < engine.getStateCount(); state++) {
+            int distance = table.distance(state);
+            long current = state;
+            for (int i = 0; i < distance; i++) {
+                int direction = table.bestMove(current);
+                assertTrue(engine.isValidMove(current, direction));
+                current = engine.move(current, direction);
+            }
+            assertEquals(-1, table.bestMove(current));
+            assertEquals(distance >= 0, engine.isWon(current));
+        }
+    }
+
+    @Test
+    void bestMove_model() {
+        var model = new GameModel();
+        assertTrue(model.getValidMoves().contains(table.bestMove(model).orElseThrow()));
+    }
+
+    @Test
+    void of_shouldReturnCachedTable() {
+        assertSame(table, DistanceTable.of(LevelLoader.builtIn()));
+    }
+
+}
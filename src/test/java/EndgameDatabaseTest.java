@@ -0,0 +1,68 @@
+import game.model.GameModel;
+import game.model.RuleEngine;
+import game.model.WallIndex;
+import game.solver.DistanceTable;
+import game.solver.EndgameDatabase;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EndgameDatabaseTest {
+
+    @TempDir
+    Path directory;
+
+    void assertMatchesTable(RuleEngine engine, EndgameDatabase database) {
+        var table = DistanceTable.build(engine);
+        for (long state = 0; state < engine.getStateCount(); state++) {
+            assertEquals(table.isSolvable(state), database.isSolvable(state));
+            assertEquals(table.distance(state), database.distance(state));
+            int direction = database.bestMove(state);
+            if (table.distance(state) > 0) {
+                assertTrue(engine.isValidMove(state, direction));
+                assertEquals(table.distance(state) - 1, table.distance(engine.move(state, direction)));
+            } else {
+                assertEquals(-1, direction);
+            }
+        }
+    }
+
+    @Test
+    void build() throws IOException {
+        var engine = new GameModel().getEngine();
+        try (var database = EndgameDatabase.build(engine, directory.resolve("level.db"))) {
+            assertMatchesTable(engine, database);
+        }
+        try (var files = Files.list(directory)) {
+            // the frontiers of the search are deleted
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void open() throws IOException {
+        var engine = new RuleEngine(WallIndex.empty(5));
+        var file = directory.resolve("empty.db");
+        EndgameDatabase.build(engine, file).close();
+        try (var database = EndgameDatabase.open(engine, file)) {
+            assertMatchesTable(engine, database);
+        }
+    }
+
+    @Test
+    void open_shouldThrowIOExceptionForOtherBoard() throws IOException {
+        var file = directory.resolve("empty.db");
+        EndgameDatabase.build(new RuleEngine(WallIndex.empty(5)), file).close();
+        assertThrows(IOException.class, () -> EndgameDatabase.open(new RuleEngine(WallIndex.empty(6)), file));
+        assertThrows(IOException.class, () -> EndgameDatabase.open(new GameModel().getEngine(), file));
+        var walled = new RuleEngine(WallIndex.builder(5).addBelow(0).build());
+        assertThrows(IOException.class, () -> EndgameDatabase.open(walled, file));
+    }
+
+}
@@ -1,5 +1,8 @@
 import game.model.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -72,6 +75,57 @@ public class GameModelTest {
 
     }
 
+    @Test
+    void move_shouldPublishOneEventPerMove() {
+        List<MoveEvent> events = new ArrayList<>();
+        gameModel.addMoveListener(events::add);
+        long oldState = gameModel.getState();
+        gameModel.move(PlayerDirection.DOWN,PlayerDirection.UP);
+        assertEquals(List.of(new MoveEvent(oldState, gameModel.getState(), false)), events);
+    }
+
+    @Test
+    void move_shouldPublishWin() {
+        var model = new GameModel(new Dot(DotType.RED, new Position(0, 0)),
+                new Dot(DotType.BLUE, new Position(0, 2)));
+        List<MoveEvent> events = new ArrayList<>();
+        model.addMoveListener(events::add);
+        model.move(PlayerDirection.RIGHT,PlayerDirection.LEFT);
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).won());
+    }
+
+    @Test
+    void move_shouldRejectInvalidMove() {
+        List<MoveEvent> events = new ArrayList<>();
+        gameModel.addMoveListener(events::add);
+        long state = gameModel.getState();
+        assertThrows(IllegalArgumentException.class, () -> gameModel.move(PlayerDirection.UP,PlayerDirection.DOWN));
+        assertThrows(IllegalArgumentException.class, () -> gameModel.move(PlayerDirection.DOWN,PlayerDirection.DOWN));
+        assertEquals(state, gameModel.getState());
+        assertPosition(0,4, gameModel.getDotPosition(0));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void undoRedo() {
+        long start = gameModel.getState();
+        gameModel.move(PlayerDirection.DOWN,PlayerDirection.UP);
+        long afterMove = gameModel.getState();
+        List<MoveEvent> events = new ArrayList<>();
+        gameModel.addMoveListener(events::add);
+        assertTrue(gameModel.undo());
+        assertEquals(start, gameModel.getState());
+        assertEquals(0, gameModel.getMoveCount());
+        assertPosition(0,4, gameModel.getDotPosition(0));
+        assertPosition(6,2, gameModel.getDotPosition(1));
+        assertFalse(gameModel.undo());
+        assertTrue(gameModel.redo());
+        assertEquals(afterMove, gameModel.getState());
+        assertEquals(1, gameModel.getMoveCount());
+        assertFalse(gameModel.redo());
+        assertEquals(List.of(new MoveEvent(afterMove, start, false), new MoveEvent(start, afterMove, false)), events);
+    }
 
     @Test
     void isValidMove() {
@@ -0,0 +1,83 @@
+import game.model.*;
+import game.server.GameServer;
+import game.server.SessionManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameServerTest {
+
+    GameServer server;
+
+    @BeforeEach
+    void init() throws IOException {
+        var level = LevelLoader.builtIn();
+        server = new GameServer(new SessionManager(id -> id == level.getId() ? level : null), 0);
+    }
+
+    @AfterEach
+    void close() {
+        server.close();
+    }
+
+    @Test
+    void execute() {
+        assertEquals("OK 1 0 4 6 2", server.execute("START"));
+        assertEquals("OK RIGHT DOWN", server.execute("moves 1"));
+        assertEquals("OK 1 4 5 2", server.execute("MOVE 1 down"));
+        assertEquals("OK 0 4 6 2", server.execute("UNDO 1"));
+        assertEquals("ERR No move to undo", server.execute("UNDO 1"));
+        assertTrue(server.execute("MOVE 1 UP").startsWith("ERR"));
+        assertEquals("OK 0 NOT_WON", server.execute("FINISH 1"));
+        assertEquals("ERR Unknown session: 1", server.execute("MOVES 1"));
+        assertEquals("ERR Unknown level: 3", server.execute("START 3"));
+        assertTrue(server.execute("MOVE").startsWith("ERR Missing argument"));
+        assertTrue(server.execute("MOVE x UP").startsWith("ERR"));
+        assertEquals("ERR Unknown command: JUMP", server.execute("JUMP"));
+    }
+
+    @Test
+    void start_shouldEndIdleSessions() throws Exception {
+        var level = LevelLoader.builtIn();
+        try (var idleServer = new GameServer(new SessionManager(id -> level), 0, Duration.ofMillis(20))) {
+            idleServer.execute("START");
+            idleServer.start();
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (idleServer.getSessions().getSessionCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(0, idleServer.getSessions().getSessionCount());
+        }
+    }
+
+    @Test
+    void serve() throws IOException {
+        server.start();
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             var writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            writer.println("START 0");
+            var session = reader.readLine().split(" ")[1];
+            writer.println("MOVE " + session + " RIGHT");
+            assertEquals("OK 0 5 6 1", reader.readLine());
+            writer.println("FINISH " + session);
+            assertEquals("OK 1 NOT_WON", reader.readLine());
+            writer.println("QUIT");
+            assertEquals("OK", reader.readLine());
+            assertNull(reader.readLine());
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+import game.Score;
+import game.leaderboard.LeaderboardIndex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LeaderboardIndexTest {
+
+    @TempDir
+    Path directory;
+
+    LeaderboardIndex index;
+
+    @BeforeEach
+    void init() throws IOException {
+        index = new LeaderboardIndex(directory);
+        index.rebuild(List.of());
+    }
+
+    @Test
+    void addAll() throws IOException {
+        index.addAll(List.of(new Score("Alice", 20, 10), new Score("Bob", 12, 10)));
+        index.addAll(List.of(new Score("Alice", 15, 10)));
+        assertEquals(List.of(new Score("Bob", 12, 10), new Score("Alice", 15, 10), new Score("Alice", 20, 10)),
+                index.getTopScores());
+        assertEquals(List.of(new Score("Alice", 15, 10), new Score("Alice", 20, 10)), index.getTopScores("Alice"));
+        assertTrue(index.getTopScores("Nobody").isEmpty());
+    }
+
+    @Test
+    void addAll_shouldKeepTopK() throws IOException {
+        for (int steps = 100; steps > 0; steps--) {
+            index.addAll(List.of(new Score("Player " + steps % 3, steps, 10)));
+        }
+        var top = index.getTopScores();
+        assertEquals(LeaderboardIndex.TOP_K, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(i + 1, top.get(i).getSteps());
+        }
+        assertEquals(LeaderboardIndex.TOP_K, index.getTopScores("Player 0").size());
+        assertEquals(3, index.getTopScores("Player 0").get(0).getSteps());
+    }
+
+    @Test
+    void addAll_shouldRankEarlierScoreFirst() throws IOException {
+        index.addAll(List.of(new Score("First", 12, 10), new Score("Second", 12, 10)));
+        assertEquals("First", index.getTopScores().get(0).getName());
+    }
+
+    @Test
+    void rebuild() throws IOException {
+        List<Score> scores = new ArrayList<>();
+        for (int steps = 30; steps > 0; steps--) {
+            scores.add(new Score("Player " + steps % 4, steps, steps % 2 == 0 ? null : 10));
+        }
+        var incremental = new LeaderboardIndex(directory.resolve("incremental"));
+        incremental.rebuild(List.of());
+        incremental.addAll(scores);
+        index.rebuild(scores);
+        assertEquals(incremental.getTopScores(), index.getTopScores());
+        assertEquals(LeaderboardIndex.topScores(scores), index.getTopScores());
+        for (int player = 0; player < 4; player++) {
+            var name = "Player " + player;
+            assertEquals(incremental.getTopScores(name), index.getTopScores(name));
+            assertEquals(LeaderboardIndex.topScores(scores, name), index.getTopScores(name));
+        }
+    }
+
+    @Test
+    void invalidate() throws IOException {
+        assertTrue(index.exists());
+        index.invalidate();
+        assertFalse(index.exists());
+        assertThrows(IOException.class, () -> index.addAll(List.of(new Score("Alice", 20, 10))));
+    }
+
+}
@@ -0,0 +1,53 @@
+import game.model.LevelLoader;
+import game.solver.BfsSolver;
+import game.solver.LevelGenerator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevelGeneratorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void generate() {
+        var levels = new LevelGenerator(7, 0.2, 8, 12).generate(20, 100, 42);
+        assertEquals(20, levels.size());
+        for (int i = 0; i < levels.size(); i++) {
+            var level = levels.get(i);
+            assertEquals(100 + i, level.getId());
+            int distance = new BfsSolver(level.getEngine()).distance(level.getStartState());
+            assertTrue(distance >= 8 && distance <= 12, "distance " + distance);
+        }
+    }
+
+    @Test
+    void generate_shouldDependOnSeedOnly() {
+        var generator = new LevelGenerator(6, 0.3, 4, 20);
+        var first = generator.generate(10, 1, 7);
+        var second = new LevelGenerator(6, 0.3, 4, 20).generate(10, 1, 7);
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getStartState(), second.get(i).getStartState());
+            assertEquals(first.get(i).getEngine().getWalls(), second.get(i).getEngine().getWalls());
+        }
+    }
+
+    @Test
+    void write() throws IOException {
+        var level = new LevelGenerator(7, 0.3, 5, 30).generate(1, 3, 1).get(0);
+        var file = directory.resolve("level.json");
+        LevelLoader.write(level, file);
+        var loaded = LevelLoader.file(file);
+        assertEquals(level.getId(), loaded.getId());
+        assertEquals(level.getName(), loaded.getName());
+        assertEquals(level.getStartState(), loaded.getStartState());
+        assertEquals(level.getEngine().getWalls(), loaded.getEngine().getWalls());
+    }
+
+}
@@ -0,0 +1,67 @@
+import game.model.GameModel;
+import game.model.LevelLoader;
+import game.model.PlayerDirection;
+import game.model.Position;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevelLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void builtIn() {
+        var level = LevelLoader.builtIn();
+        assertSame(level, LevelLoader.builtIn());
+        assertEquals(7, level.getSize());
+        assertEquals(new Position(0, 4), level.getRed());
+        assertEquals(new Position(6, 2), level.getBlue());
+        assertEquals(16, level.getEngine().getWalls().getWallCount());
+        assertTrue(level.getEngine().isWallBetween(level.getEngine().cell(new Position(1, 2)),
+                level.getEngine().cell(new Position(1, 3))));
+    }
+
+    @Test
+    void newGame_shouldShareEngine() {
+        var level = LevelLoader.builtIn();
+        var model = level.newGame();
+        assertSame(level.getEngine(), model.getEngine());
+        assertSame(level.getEngine(), new GameModel().getEngine());
+        assertEquals(level.getStartState(), model.getState());
+        assertEquals(level.getId(), model.getLevelId());
+    }
+
+    @Test
+    void file() throws IOException {
+        var file = directory.resolve("large.json");
+        Files.writeString(file, "{\"id\":5,\"name\":\"Large\",\"size\":100,\"red\":[0,0],\"blue\":[99,99],"
+                + "\"walls\":[[0,0,0,1]]}");
+        var level = LevelLoader.file(file);
+        assertSame(level, LevelLoader.file(file));
+        var model = level.newGame();
+        assertTrue(model.isOnBoard(new Position(99, 99)));
+        assertFalse(model.isOnBoard(new Position(100, 0)));
+        assertFalse(model.isValidMove(PlayerDirection.RIGHT));
+    }
+
+    @Test
+    void parse_shouldRejectInvalidLevels() {
+        assertThrows(IllegalArgumentException.class, () -> LevelLoader.parse("{\"size\":0}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> LevelLoader.parse("{\"size\":3,\"red\":[0,0],\"blue\":[0,0]}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> LevelLoader.parse("{\"size\":3,\"red\":[0,0],\"blue\":[2,2],\"walls\":[[0,0,2,2]]}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> LevelLoader.parse("{\"size\":3,\"red\":[0,0],\"blue\":[2,2],\"walls\":[[0,0,0,3]]}"));
+        assertThrows(IllegalArgumentException.class, () -> LevelLoader.resource("/levels/missing.json"));
+    }
+
+}
@@ -0,0 +1,49 @@
+import game.model.MoveHistory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveHistoryTest {
+
+    @Test
+    void undoRedo() {
+        var history = new MoveHistory();
+        assertFalse(history.canUndo());
+        assertFalse(history.canRedo());
+        history.push(1);
+        history.push(2);
+        assertEquals(2, history.undo());
+        assertEquals(1, history.size());
+        assertTrue(history.canRedo());
+        assertEquals(2, history.redo());
+        assertFalse(history.canRedo());
+        assertThrows(IllegalStateException.class, history::redo);
+    }
+
+    @Test
+    void push_shouldDropRedo() {
+        var history = new MoveHistory();
+        history.push(0);
+        history.push(3);
+        history.undo();
+        history.push(2);
+        assertFalse(history.canRedo());
+        assertEquals(2, history.undo());
+        assertEquals(0, history.undo());
+        assertThrows(IllegalStateException.class, history::undo);
+    }
+
+    @Test
+    void push_shouldGrowBeyondOneWord() {
+        var history = new MoveHistory();
+        for (int i = 0; i < 1000; i++) {
+            history.push(i % 4);
+        }
+        assertEquals(1000, history.size());
+        for (int i = 999; i >= 0; i--) {
+            assertEquals(i % 4, history.undo());
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+import game.model.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveTableTest {
+
+    void assertSameMoves(WallIndex walls) {
+        var plain = new RuleEngine(walls);
+        var compiled = RuleEngine.compiled(walls);
+        var table = compiled.getMoveTable();
+        assertNotNull(table);
+        for (long state = 0; state < plain.getStateCount(); state++) {
+            int moves = plain.getValidMoves(state);
+            assertEquals(moves, table.getValidMoves(state), "state " + state);
+            assertEquals(moves, compiled.getValidMoves(state), "state " + state);
+            for (int direction = 0; direction < 4; direction++) {
+                boolean valid = (moves & 1 << direction) != 0;
+                assertEquals(valid, compiled.isValidMove(state, direction));
+                long expected = valid ? plain.move(state, direction, RuleEngine.inverse(direction)) : -1;
+                assertEquals(expected, table.successor(state, direction));
+                if (valid) {
+                    assertEquals(expected, compiled.move(state, direction));
+                }
+            }
+        }
+    }
+
+    @Test
+    void build_shouldMatchRuleEngineOnBuiltInLevel() {
+        assertSameMoves(LevelLoader.builtIn().getEngine().getWalls());
+    }
+
+    @Test
+    void build_shouldMatchRuleEngineOnRandomBoards() {
+        var random = new SplittableRandom(3);
+        for (int size : new int[] {1, 2, 5, 8}) {
+            var builder = WallIndex.builder(size);
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    if (col + 1 < size && random.nextInt(4) == 0) {
+                        builder.add(new Position(row, col), new Position(row, col + 1));
+                    }
+                    if (row + 1 < size && random.nextInt(4) == 0) {
+                        builder.add(new Position(row, col), new Position(row + 1, col));
+                    }
+                }
+            }
+            assertSameMoves(builder.build());
+        }
+    }
+
+    @Test
+    void compiled_shouldSkipTableOfLargeBoards() {
+        assertNull(new RuleEngine(WallIndex.empty(7)).getMoveTable());
+        assertNull(RuleEngine.compiled(WallIndex.empty(100)).getMoveTable());
+        assertNotNull(LevelLoader.builtIn().getEngine().getMoveTable());
+    }
+
+}
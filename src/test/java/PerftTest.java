@@ -0,0 +1,103 @@
+import game.model.*;
+import game.solver.Perft;
+import game.solver.TranspositionTable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTest {
+
+    /**
+     * Move sequences of depth 1 to 12 from the starting position of the built-in level.
+     */
+    static final long[] BUILT_IN_COUNTS = {2, 6, 15, 47, 121, 378, 987, 3060, 8040, 24779, 65297, 200343};
+
+    @Test
+    void count_shouldMatchKnownCounts() {
+        var level = LevelLoader.builtIn();
+        var perft = new Perft(level.getEngine());
+        assertEquals(1, perft.count(level.getStartState(), 0));
+        for (int depth = 1; depth <= BUILT_IN_COUNTS.length; depth++) {
+            assertEquals(BUILT_IN_COUNTS[depth - 1], perft.count(level.getStartState(), depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    void count_shouldDoubleOnDiagonalOfSmallestBoard() {
+        // both dots always have exactly two moves and never meet
+        var model = new GameModel(WallIndex.empty(2), new Dot(DotType.RED, new Position(0, 0)),
+                new Dot(DotType.BLUE, new Position(1, 1)));
+        var perft = new Perft(model.getEngine());
+        for (int depth = 0; depth <= 20; depth++) {
+            assertEquals(1L << depth, perft.count(model.getState(), depth));
+        }
+    }
+
+    @Test
+    void count_shouldStopAtWin() {
+        var model = new GameModel(WallIndex.empty(3), new Dot(DotType.RED, new Position(1, 0)),
+                new Dot(DotType.BLUE, new Position(1, 2)));
+        var perft = new Perft(model.getEngine());
+        // of the 3 first moves, RIGHT wins and ends the game, UP and DOWN have 2 moves each
+        assertEquals(3, perft.count(model.getState(), 1));
+        assertEquals(4, perft.count(model.getState(), 2));
+        assertEquals(4, Perft.countOnModel(model, 2));
+        assertEquals(0, perft.count(model.getEngine().state(4, 4), 3));
+    }
+
+    @Test
+    void parallelCount_shouldMatchCount() {
+        var level = LevelLoader.builtIn();
+        var perft = new Perft(level.getEngine(), new ForkJoinPool(4));
+        for (int depth = 0; depth <= 14; depth++) {
+            assertEquals(perft.count(level.getStartState(), depth), perft.parallelCount(level.getStartState(), depth));
+        }
+    }
+
+    @Test
+    void count_shouldMatchKnownCountsWithTranspositionTable() {
+        var level = LevelLoader.builtIn();
+        var table = new TranspositionTable(1 << 12);
+        var perft = new Perft(level.getEngine(), new ForkJoinPool(4), table);
+        for (int depth = 1; depth <= BUILT_IN_COUNTS.length; depth++) {
+            assertEquals(BUILT_IN_COUNTS[depth - 1], perft.count(level.getStartState(), depth), "depth " + depth);
+            assertEquals(BUILT_IN_COUNTS[depth - 1], perft.parallelCount(level.getStartState(), depth));
+        }
+        var plain = new Perft(level.getEngine());
+        assertEquals(plain.count(level.getStartState(), 18), perft.parallelCount(level.getStartState(), 18));
+    }
+
+    @Test
+    void divide() {
+        var level = LevelLoader.builtIn();
+        var perft = new Perft(level.getEngine());
+        var counts = perft.divide(level.newGame(), 12);
+        long total = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            total += counts[direction];
+            if (!level.getEngine().isValidMove(level.getStartState(), direction)) {
+                assertEquals(0, counts[direction]);
+            }
+        }
+        assertEquals(BUILT_IN_COUNTS[11], total);
+    }
+
+    @Test
+    void count_shouldMatchMovesOnModel() {
+        var level = LevelLoader.builtIn();
+        var compiled = new Perft(level.getEngine());
+        var plain = new Perft(new RuleEngine(level.getEngine().getWalls()));
+        var model = level.newGame();
+        for (int depth = 0; depth <= 9; depth++) {
+            long expected = Perft.countOnModel(model, depth);
+            assertEquals(expected, compiled.count(level.getStartState(), depth));
+            assertEquals(expected, plain.count(level.getStartState(), depth));
+        }
+        assertEquals(level.getStartState(), model.getState());
+        assertEquals(0, model.getMoveCount());
+    }
+
+}
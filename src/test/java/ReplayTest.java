@@ -0,0 +1,214 @@
+import game.model.Dot;
+import game.model.DotType;
+import game.model.GameModel;
+import game.model.PlayerDirection;
+import game.model.Position;
+import game.replay.Replay;
+import game.replay.ReplayReader;
+import game.replay.ReplayRecorder;
+import game.replay.ReplayWriter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayTest {
+
+    @TempDir
+    Path directory;
+
+    GameModel playedGame() {
+        var model = new GameModel();
+        model.move(PlayerDirection.DOWN, PlayerDirection.UP);
+        model.move(PlayerDirection.RIGHT, PlayerDirection.LEFT);
+        model.move(PlayerDirection.LEFT, PlayerDirection.RIGHT);
+        model.undo();
+        model.move(PlayerDirection.DOWN, PlayerDirection.UP);
+        return model;
+    }
+
+    @Test
+    void of() {
+        var model = playedGame();
+        var replay = Replay.of(model);
+        assertEquals(3, replay.getMoveCount());
+        assertEquals(PlayerDirection.DOWN.ordinal(), replay.getMove(0));
+        assertEquals(PlayerDirection.RIGHT.ordinal(), replay.getMove(1));
+        assertEquals(PlayerDirection.DOWN.ordinal(), replay.getMove(2));
+        assertEquals(model.getState(), replay.play(new GameModel().getEngine()));
+    }
+
+    @Test
+    void play_shouldRejectMovesAfterWin() {
+        var engine = new GameModel().getEngine();
+        long nearWin = engine.state(0, 2);
+        int right = PlayerDirection.RIGHT.ordinal();
+        int left = PlayerDirection.LEFT.ordinal();
+        var won = new Replay(0, nearWin, 1, new byte[] {(byte) right});
+        assertTrue(engine.isWon(won.play(engine)));
+        var padded = new Replay(0, nearWin, 3, new byte[] {(byte) (right | left << 2 | right << 4)});
+        assertEquals(-1, padded.play(engine));
+    }
+
+    @Test
+    void play_shouldRejectInvalidMove() {
+        var model = new GameModel();
+        var replay = new Replay(model.getLevelId(), model.getState(), 1,
+                new byte[] {(byte) PlayerDirection.UP.ordinal()});
+        assertEquals(-1, replay.play(model.getEngine()));
+    }
+
+    @Test
+    void writeRead() throws IOException {
+        var first = Replay.of(playedGame());
+        var second = Replay.of(new GameModel(new Dot(DotType.RED, new Position(0, 0)),
+                new Dot(DotType.BLUE, new Position(6, 6))));
+        var bytes = new ByteArrayOutputStream();
+        try (var writer = new ReplayWriter(bytes)) {
+            writer.write(first);
+            writer.write(second);
+        }
+        // header of 5 bytes, then records of a length byte, a 4 byte checksum and the replay: level id, 2 byte
+        // state, move count and a byte of moves, and a replay without moves
+        assertEquals(5 + (1 + 4 + 5) + (1 + 4 + 3), bytes.size());
+        try (var reader = new ReplayReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(first, reader.next());
+            assertEquals(second, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    byte[] twoReplays(Replay first, Replay second) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var writer = new ReplayWriter(bytes)) {
+            writer.write(first);
+            writer.write(second);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void read_shouldSkipCorruptRecord() throws IOException {
+        var first = Replay.of(playedGame());
+        var second = Replay.of(new GameModel());
+        var bytes = twoReplays(first, second);
+        // a move of the first replay
+        bytes[5 + 1 + 4 + 4] ^= 1;
+        try (var reader = new ReplayReader(new ByteArrayInputStream(bytes))) {
+            assertEquals(second, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void read_shouldStopAtTornRecord() throws IOException {
+        var first = Replay.of(playedGame());
+        var bytes = twoReplays(first, Replay.of(new GameModel()));
+        try (var reader = new ReplayReader(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)))) {
+            assertEquals(first, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void record_shouldCutTornRecord() throws Exception {
+        var file = directory.resolve(ReplayRecorder.FILE_NAME);
+        var first = Replay.of(playedGame());
+        var second = Replay.of(new GameModel());
+        try (var recorder = new ReplayRecorder(file)) {
+            recorder.record(first).get();
+        }
+        var bytes = twoReplays(first, second);
+        Files.write(file, Arrays.copyOfRange(bytes, 5 + 1 + 4 + 5, bytes.length - 1), StandardOpenOption.APPEND);
+        try (var recorder = new ReplayRecorder(file)) {
+            recorder.record(second).get();
+        }
+        try (var reader = new ReplayReader(Files.newInputStream(file))) {
+            assertEquals(first, reader.next());
+            assertEquals(second, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void advance() throws IOException {
+        var first = Replay.of(playedGame());
+        var second = Replay.of(new GameModel());
+        try (var reader = new ReplayReader(new ByteArrayInputStream(twoReplays(first, second)))) {
+            assertTrue(reader.advance());
+            assertEquals(first.getLevelId(), reader.getLevelId());
+            assertEquals(first.getStartState(), reader.getStartState());
+            assertEquals(3, reader.getMoveCount());
+            assertEquals(5, reader.getOffset());
+            var moves = new byte[2];
+            assertEquals(1, reader.copyMoves(moves, 1));
+            assertEquals(first, new Replay(reader.getLevelId(), reader.getStartState(), reader.getMoveCount(),
+                    new byte[] {moves[1]}));
+            assertEquals(first.play(new GameModel().getEngine()), reader.play(new GameModel().getEngine()));
+            assertEquals(second, reader.next());
+            assertEquals(5 + 1 + 4 + 5, reader.getOffset());
+            assertFalse(reader.advance());
+        }
+    }
+
+    @Test
+    void read_shouldRejectOtherStreams() {
+        assertThrows(IOException.class, () -> new ReplayReader(new ByteArrayInputStream(new byte[] {1, 2})));
+    }
+
+    @Test
+    void record_shouldAppendEveryQueuedReplay() throws Exception {
+        var file = directory.resolve(ReplayRecorder.FILE_NAME);
+        var replay = Replay.of(playedGame());
+        List<CompletableFuture<Long>> offsets = new ArrayList<>();
+        try (var recorder = new ReplayRecorder(file)) {
+            for (int i = 0; i < 500; i++) {
+                offsets.add(recorder.record(replay));
+            }
+            CompletableFuture.allOf(offsets.toArray(CompletableFuture[]::new)).get();
+        }
+        try (var reader = new ReplayReader(Files.newInputStream(file))) {
+            for (var offset : offsets) {
+                assertEquals(replay, reader.next());
+                assertEquals(offset.get(), reader.getOffset());
+            }
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void record_shouldFailAfterClose() {
+        var recorder = new ReplayRecorder(directory.resolve(ReplayRecorder.FILE_NAME));
+        recorder.close();
+        assertThrows(ExecutionException.class, () -> recorder.record(Replay.of(playedGame())).get());
+    }
+
+    @Test
+    void record() throws Exception {
+        var file = directory.resolve(ReplayRecorder.FILE_NAME);
+        var replay = Replay.of(playedGame());
+        try (var recorder = new ReplayRecorder(file)) {
+            recorder.record(replay).get();
+            recorder.record(replay).get();
+        }
+        try (var reader = new ReplayReader(Files.newInputStream(file))) {
+            assertEquals(replay, reader.next());
+            assertEquals(replay, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+}
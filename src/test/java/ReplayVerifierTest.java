@@ -0,0 +1,122 @@
+import game.Score;
+import game.model.GameModel;
+import game.model.LevelLoader;
+import game.replay.Replay;
+import game.replay.ReplayRecorder;
+import game.replay.ReplayVerifier;
+import game.replay.ReplayVerifier.Verdict;
+import game.replay.ReplayWriter;
+import game.solver.BfsSolver;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayVerifierTest {
+
+    @TempDir
+    Path directory;
+
+    GameModel model;
+
+    ReplayVerifier verifier;
+
+    Replay solution;
+
+    @BeforeEach
+    void init() {
+        model = new GameModel();
+        var level = LevelLoader.builtIn();
+        verifier = new ReplayVerifier(levelId -> levelId == level.getId() ? level : null);
+        var path = new BfsSolver(model.getEngine()).solve(model.getState());
+        solution = replay(model.getLevelId(), model.getState(), path);
+    }
+
+    static Replay replay(int levelId, long startState, int[] path) {
+        var moves = new byte[(path.length + 3) / 4];
+        for (int i = 0; i < path.length; i++) {
+            moves[i / 4] |= path[i] << (i % 4) * 2;
+        }
+        return new Replay(levelId, startState, path.length, moves);
+    }
+
+    @Test
+    void verify() {
+        int steps = solution.getMoveCount();
+        assertEquals(Verdict.VALID, verifier.verify(solution, steps));
+        assertEquals(Verdict.WRONG_STEPS, verifier.verify(solution, steps - 1));
+        assertEquals(Verdict.UNKNOWN_LEVEL, verifier.verify(replay(1, model.getState(), new int[0]), 0));
+        assertEquals(Verdict.NOT_WON, verifier.verify(replay(model.getLevelId(), model.getState(), new int[0]), 0));
+        assertEquals(Verdict.INVALID_MOVE, verifier.verify(replay(model.getLevelId(), model.getState(), new int[] {0}), 1));
+        var engine = model.getEngine();
+        long nearWin = engine.state(0, 2);
+        assertEquals(Verdict.WRONG_START, verifier.verify(replay(model.getLevelId(), nearWin, new int[] {1}), 1));
+        var path = new BfsSolver(engine).solve(model.getState());
+        var padded = Arrays.copyOf(path, path.length + 2);
+        padded[path.length] = (path[path.length - 1] + 2) & 3;
+        padded[path.length + 1] = path[path.length - 1];
+        assertEquals(Verdict.INVALID_MOVE,
+                verifier.verify(replay(model.getLevelId(), model.getState(), padded), padded.length));
+    }
+
+    @Test
+    void verifyAll() {
+        int count = 100_000;
+        var replays = new Replay[count];
+        var claimedSteps = new int[count];
+        for (int i = 0; i < count; i++) {
+            replays[i] = solution;
+            claimedSteps[i] = solution.getMoveCount() - i % 2;
+        }
+        var verdicts = verifier.verifyAll(replays, claimedSteps);
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 == 0 ? Verdict.VALID : Verdict.WRONG_STEPS, verdicts[i]);
+        }
+    }
+
+    @Test
+    void verifyFile() throws IOException {
+        var file = directory.resolve("replays.bin");
+        try (var writer = new ReplayWriter(Files.newOutputStream(file))) {
+            for (int i = 0; i < 3; i++) {
+                writer.write(solution);
+            }
+            writer.write(replay(model.getLevelId(), model.getState(), new int[0]));
+        }
+        assertEquals(Map.of(Verdict.VALID, 3L, Verdict.NOT_WON, 1L), verifier.verifyFile(file));
+    }
+
+    @Test
+    void verifyScores() throws Exception {
+        var file = directory.resolve(ReplayRecorder.FILE_NAME);
+        long solved;
+        long unfinished;
+        try (var recorder = new ReplayRecorder(file)) {
+            solved = recorder.record(solution).get();
+            unfinished = recorder.record(replay(model.getLevelId(), model.getState(), new int[0])).get();
+        }
+        int steps = solution.getMoveCount();
+        var scores = List.of(
+                new Score("Valid", steps, steps, solved),
+                new Score("Reused", steps, steps, solved),
+                new Score("Fewer", steps - 1, steps, solved),
+                new Score("Unfinished", 0, steps, unfinished),
+                new Score("Missing", steps, steps),
+                new Score("Elsewhere", steps, steps, solved + 1));
+        assertArrayEquals(new Verdict[] {Verdict.VALID, Verdict.REUSED_REPLAY, Verdict.REUSED_REPLAY,
+                        Verdict.NOT_WON, Verdict.NO_REPLAY, Verdict.NO_REPLAY},
+                verifier.verifyScores(scores, file));
+        assertEquals(Verdict.WRONG_STEPS,
+                verifier.verifyScores(List.of(new Score("Fewer", steps - 1, steps, solved)), file)[0]);
+    }
+
+}
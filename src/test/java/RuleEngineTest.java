@@ -0,0 +1,91 @@
+import game.model.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleEngineTest {
+
+    RuleEngine engine;
+    long state;
+
+    @BeforeEach
+    void init() {
+        engine = new RuleEngine(7, List.of(new Wall(new Position(0, 3), new Position(0, 4))));
+        state = engine.state(engine.cell(new Position(0, 4)), engine.cell(new Position(6, 2)));
+    }
+
+    @Test
+    void state() {
+        assertEquals(new Position(0, 4), engine.position(engine.redCell(state)));
+        assertEquals(new Position(6, 2), engine.position(engine.blueCell(state)));
+        assertEquals(49L * 49L, engine.getStateCount());
+        assertFalse(engine.isWon(state));
+        assertTrue(engine.isWon(engine.state(10, 10)));
+    }
+
+    @Test
+    void isValidMove() {
+        assertFalse(engine.isValidMove(state, PlayerDirection.UP));
+        assertTrue(engine.isValidMove(state, PlayerDirection.DOWN));
+        assertTrue(engine.isValidMove(state, PlayerDirection.RIGHT));
+        assertFalse(engine.isValidMove(state, PlayerDirection.LEFT));
+    }
+
+    @Test
+    void isValidMove_shouldNotMoveOntoBlueDot() {
+        long adjacent = engine.state(engine.cell(new Position(3, 3)), engine.cell(new Position(3, 4)));
+        assertFalse(engine.isValidMove(adjacent, PlayerDirection.RIGHT));
+        assertTrue(engine.isValidMove(engine.state(engine.cell(new Position(3, 3)), engine.cell(new Position(3, 5))),
+                PlayerDirection.RIGHT));
+    }
+
+    @Test
+    void getValidMoves() {
+        int expected = 1 << PlayerDirection.DOWN.ordinal() | 1 << PlayerDirection.RIGHT.ordinal();
+        assertEquals(expected, engine.getValidMoves(state));
+    }
+
+    @Test
+    void move() {
+        long moved = engine.move(state, PlayerDirection.DOWN.ordinal());
+        assertEquals(new Position(1, 4), engine.position(engine.redCell(moved)));
+        assertEquals(new Position(5, 2), engine.position(engine.blueCell(moved)));
+    }
+
+    @Test
+    void move_shouldMatchGameModel() {
+        GameModel model = new GameModel();
+        RuleEngine modelEngine = model.getEngine();
+        for (int i = 0; i < 20; i++) {
+            for (var direction : PlayerDirection.values()) {
+                assertEquals(modelEngine.isValidMove(model.getState(), direction), model.isValidMove(direction));
+            }
+            if (model.getValidMoves().isEmpty()) {
+                break;
+            }
+            var direction = model.getValidMoves().iterator().next();
+            model.move(direction, direction.inverse());
+            assertEquals(model.getDotPosition(0), modelEngine.position(modelEngine.redCell(model.getState())));
+            assertEquals(model.getDotPosition(1), modelEngine.position(modelEngine.blueCell(model.getState())));
+        }
+    }
+
+    @Test
+    void canMeet() {
+        assertTrue(engine.canMeet(state));
+        assertTrue(engine.canMeet(engine.state(10, 10)));
+        assertFalse(engine.canMeet(engine.state(engine.cell(new Position(0, 0)), engine.cell(new Position(0, 1)))));
+        assertFalse(engine.canMeet(engine.state(engine.cell(new Position(0, 0)), engine.cell(new Position(3, 2)))));
+    }
+
+    @Test
+    void dotDistance() {
+        assertEquals(8, engine.dotDistance(state));
+        assertEquals(0, engine.dotDistance(engine.state(10, 10)));
+    }
+
+}
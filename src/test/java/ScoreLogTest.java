@@ -0,0 +1,205 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import game.Score;
+import game.leaderboard.ScoreLog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoreLogTest {
+
+    @TempDir
+    Path directory;
+
+    ScoreLog scoreLog;
+
+    @BeforeEach
+    void init() {
+        scoreLog = new ScoreLog(directory);
+    }
+
+    @Test
+    void readAll_shouldBeEmptyWithoutFiles() throws IOException {
+        assertTrue(scoreLog.readAll().isEmpty());
+    }
+
+    @Test
+    void append() throws IOException {
+        scoreLog.append(new Score("Alice", 12, 10));
+        scoreLog.append(new Score("Bob", 14, 10));
+        assertEquals(List.of(new Score("Bob", 14, 10), new Score("Alice", 12, 10)), scoreLog.readAll());
+        assertEquals(2, Files.readAllLines(directory.resolve(ScoreLog.LOG_FILE_NAME)).size());
+    }
+
+    @Test
+    void readAll_shouldKeepReplayOffset() throws IOException {
+        scoreLog.append(new Score("Alice", 12, 10, 42L));
+        scoreLog.compact();
+        scoreLog.append(new Score("Bob", 14, 10));
+        assertEquals(List.of(new Score("Bob", 14, 10), new Score("Alice", 12, 10, 42L)), scoreLog.readAll());
+    }
+
+    @Test
+    void readAll_shouldReadLegacySnapshot() throws IOException {
+        Files.writeString(directory.resolve(ScoreLog.SNAPSHOT_FILE_NAME),
+                "[{\"name\":\"Old\",\"steps\":\"20\"}]");
+        scoreLog.append(new Score("New", 12, 10));
+        assertEquals(List.of(new Score("New", 12, 10), new Score("Old", 20, null)), scoreLog.readAll());
+    }
+
+    @Test
+    void compact() throws IOException {
+        for (int i = 0; i < ScoreLog.COMPACTION_THRESHOLD; i++) {
+            scoreLog.append(new Score("Player", i, 10));
+        }
+        assertFalse(Files.exists(directory.resolve(ScoreLog.LOG_FILE_NAME)));
+        scoreLog.append(new Score("Last", 1, 10));
+        var scores = new ScoreLog(directory).readAll();
+        assertEquals(ScoreLog.COMPACTION_THRESHOLD + 1, scores.size());
+        assertEquals("Last", scores.get(0).getName());
+        assertEquals(ScoreLog.COMPACTION_THRESHOLD - 1, scores.get(1).getSteps());
+        assertEquals(ScoreLog.COMPACTION_THRESHOLD, new ObjectMapper()
+                .readValue(directory.resolve(ScoreLog.SNAPSHOT_FILE_NAME).toFile(), Score[].class).length);
+    }
+
+    /**
+     * Leaves the files of a compaction cut short after the old log was moved aside, with the given generation.
+     */
+    private void crashCompaction(long generation) throws IOException {
+        Files.writeString(directory.resolve(ScoreLog.SNAPSHOT_FILE_NAME),
+                "[{\"name\":\"Old\",\"steps\":20,\"optimal\":10}]");
+        scoreLog.append(new Score("New", 12, 10));
+        Files.writeString(directory.resolve(ScoreLog.NEXT_SNAPSHOT_FILE_NAME),
+                "[{\"name\":\"New\",\"steps\":12,\"optimal\":10},{\"name\":\"Old\",\"steps\":20,\"optimal\":10}]");
+        Files.move(directory.resolve(ScoreLog.LOG_FILE_NAME), directory.resolve(ScoreLog.OLD_LOG_FILE_NAME));
+        Files.writeString(directory.resolve(ScoreLog.GENERATION_FILE_NAME), Long.toString(generation));
+    }
+
+    @Test
+    void readAll_shouldNotWaitForUncommittedCompaction() throws IOException {
+        crashCompaction(1);
+        assertEquals(List.of(new Score("New", 12, 10), new Score("Old", 20, 10)), scoreLog.readAll());
+    }
+
+    @Test
+    void open_shouldRollBackUncommittedCompaction() throws IOException {
+        crashCompaction(1);
+        var recovered = new ScoreLog(directory);
+        assertEquals("2", Files.readString(directory.resolve(ScoreLog.GENERATION_FILE_NAME)));
+        assertFalse(Files.exists(directory.resolve(ScoreLog.NEXT_SNAPSHOT_FILE_NAME)));
+        assertFalse(Files.exists(directory.resolve(ScoreLog.OLD_LOG_FILE_NAME)));
+        assertTrue(Files.exists(directory.resolve(ScoreLog.LOG_FILE_NAME)));
+        recovered.append(new Score("Last", 1, 10));
+        assertEquals(List.of(new Score("Last", 1, 10), new Score("New", 12, 10), new Score("Old", 20, 10)),
+                recovered.readAll());
+    }
+
+    @Test
+    void readAll_shouldNotDuplicateScoresOfCommittedCompaction() throws IOException {
+        crashCompaction(2);
+        assertEquals(List.of(new Score("New", 12, 10), new Score("Old", 20, 10)), scoreLog.readAll());
+    }
+
+    @Test
+    void open_shouldFinishCommittedCompaction() throws IOException {
+        crashCompaction(2);
+        var recovered = new ScoreLog(directory);
+        assertFalse(Files.exists(directory.resolve(ScoreLog.NEXT_SNAPSHOT_FILE_NAME)));
+        assertFalse(Files.exists(directory.resolve(ScoreLog.OLD_LOG_FILE_NAME)));
+        assertFalse(Files.exists(directory.resolve(ScoreLog.LOG_FILE_NAME)));
+        assertEquals(List.of(new Score("New", 12, 10), new Score("Old", 20, 10)), recovered.readAll());
+    }
+
+    @Test
+    void readAll_shouldSkipCorruptRecords() throws IOException {
+        scoreLog.append(new Score("Alice", 12, 10));
+        var log = directory.resolve(ScoreLog.LOG_FILE_NAME);
+        Files.writeString(log, Files.readString(log).replace("Alice", "Alicf"));
+        scoreLog.append(new Score("Bob", 14, 10));
+        assertEquals(List.of(new Score("Bob", 14, 10)), scoreLog.readAll());
+    }
+
+    @Test
+    void readAll_shouldSkipRecordsWithoutChecksum() throws IOException {
+        Files.writeString(directory.resolve(ScoreLog.LOG_FILE_NAME), "{\"name\":\"Bare\",\"steps\":12}\n");
+        scoreLog.append(new Score("Bob", 14, 10));
+        assertEquals(List.of(new Score("Bob", 14, 10)), scoreLog.readAll());
+    }
+
+    @Test
+    void compact_shouldCountRecordsOfOtherWriters() throws IOException {
+        var other = new ScoreLog(directory);
+        for (int i = 0; i < ScoreLog.COMPACTION_THRESHOLD - 1; i++) {
+            (i % 2 == 0 ? scoreLog : other).append(new Score("Player", i, 10));
+        }
+        assertTrue(Files.exists(directory.resolve(ScoreLog.LOG_FILE_NAME)));
+        scoreLog.append(new Score("Last", 1, 10));
+        assertFalse(Files.exists(directory.resolve(ScoreLog.LOG_FILE_NAME)));
+        assertEquals(ScoreLog.COMPACTION_THRESHOLD, other.readAll().size());
+    }
+
+    @Test
+    void append_shouldCutTornRecord() throws IOException {
+        scoreLog.append(new Score("Alice", 12, 10));
+        var log = directory.resolve(ScoreLog.LOG_FILE_NAME);
+        Files.writeString(log, "0badc0de {\"name\":\"Bo", StandardOpenOption.APPEND);
+        assertEquals(List.of(new Score("Alice", 12, 10)), scoreLog.readAll());
+        scoreLog.append(new Score("Carol", 14, 10));
+        assertEquals(List.of(new Score("Carol", 14, 10), new Score("Alice", 12, 10)), scoreLog.readAll());
+        assertEquals(2, Files.readAllLines(log).size());
+    }
+
+    @Test
+    void appendAll_shouldNotLoseScoresOfConcurrentWriters() throws Exception {
+        int writers = 4;
+        int scoresPerWriter = ScoreLog.COMPACTION_THRESHOLD;
+        var executor = Executors.newFixedThreadPool(writers + 1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                var name = "Player" + i;
+                // every writer has its own instance, like separate processes sharing the directory
+                var writer = new ScoreLog(directory);
+                futures.add(executor.submit(() -> {
+                    for (int steps = 0; steps < scoresPerWriter; steps++) {
+                        writer.append(new Score(name, steps, 0));
+                    }
+                    return null;
+                }));
+            }
+            var reader = executor.submit(() -> {
+                int previous = 0;
+                while (previous < writers * scoresPerWriter) {
+                    int size = new ScoreLog(directory).readAll().size();
+                    assertTrue(size >= previous);
+                    previous = size;
+                }
+                return null;
+            });
+            for (var future : futures) {
+                future.get();
+            }
+            reader.get();
+        } finally {
+            executor.shutdown();
+        }
+        var scores = scoreLog.readAll();
+        assertEquals(writers * scoresPerWriter, scores.size());
+        for (int i = 0; i < writers; i++) {
+            var name = "Player" + i;
+            assertEquals(scoresPerWriter, scores.stream().filter(score -> score.getName().equals(name)).count());
+        }
+    }
+
+}
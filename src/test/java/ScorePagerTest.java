@@ -0,0 +1,96 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import game.Score;
+import game.leaderboard.ScoreLog;
+import game.leaderboard.ScorePager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScorePagerTest {
+
+    static final int SNAPSHOT_SIZE = ScorePager.PAGE_SIZE * 20 + 17;
+
+    @TempDir
+    Path directory;
+
+    ScoreLog scoreLog;
+
+    @BeforeEach
+    void init() throws IOException {
+        List<Score> scores = new ArrayList<>();
+        for (int i = 0; i < SNAPSHOT_SIZE; i++) {
+            scores.add(new Score("Player " + i, i, i % 3 == 0 ? null : 10));
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter()
+                .writeValue(directory.resolve(ScoreLog.SNAPSHOT_FILE_NAME).toFile(), scores);
+        scoreLog = new ScoreLog(directory);
+        scoreLog.append(new Score("Tail 1", 1, 1));
+        scoreLog.append(new Score("Tail 2", 2, 2));
+    }
+
+    @Test
+    void get() throws IOException {
+        try (var pager = scoreLog.openPager()) {
+            assertEquals(SNAPSHOT_SIZE + 2, pager.size());
+            assertEquals(scoreLog.readAll(), readAll(pager));
+        }
+    }
+
+    @Test
+    void get_shouldReadPagesInAnyOrder() throws IOException {
+        try (var pager = scoreLog.openPager()) {
+            for (int i = pager.size() - 1; i >= 0; i -= 37) {
+                assertEquals(i < 2 ? "Tail " + (2 - i) : "Player " + (i - 2), pager.get(i).getName());
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> pager.get(pager.size()));
+        }
+    }
+
+    @Test
+    void getIfLoaded_shouldNotDecodePages() throws IOException {
+        try (var pager = scoreLog.openPager()) {
+            int index = 2 + ScorePager.PAGE_SIZE * 3 + 5;
+            assertEquals("Tail 2", pager.getIfLoaded(0).getName());
+            assertEquals(-1, pager.pageOf(1));
+            assertNull(pager.getIfLoaded(index));
+            assertEquals(3, pager.pageOf(index));
+            pager.get(index - 5);
+            assertEquals("Player " + (index - 2), pager.getIfLoaded(index).getName());
+            assertNull(pager.getIfLoaded(index + ScorePager.PAGE_SIZE));
+        }
+    }
+
+    @Test
+    void get_shouldNotSeeLaterCompaction() throws IOException {
+        try (var pager = scoreLog.openPager()) {
+            scoreLog.append(new Score("Later", 3, 3));
+            scoreLog.compact();
+            assertEquals(SNAPSHOT_SIZE + 2, pager.size());
+            assertEquals("Player " + (SNAPSHOT_SIZE - 1), pager.get(pager.size() - 1).getName());
+        }
+    }
+
+    @Test
+    void size_shouldBeZeroWithoutFiles() throws IOException {
+        try (var pager = new ScoreLog(directory.resolve("empty")).openPager()) {
+            assertEquals(0, pager.size());
+        }
+    }
+
+    List<Score> readAll(ScorePager pager) {
+        List<Score> scores = new ArrayList<>();
+        for (int i = 0; i < pager.size(); i++) {
+            scores.add(pager.get(i));
+        }
+        return scores;
+    }
+
+}
@@ -0,0 +1,72 @@
+import game.Score;
+import game.leaderboard.ScoreLog;
+import game.leaderboard.ScoreService;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoreServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readAll_shouldSeeSubmittedScores() throws ExecutionException, InterruptedException {
+        try (var service = new ScoreService(new ScoreLog(directory))) {
+            for (int i = 0; i < 100; i++) {
+                service.submit(new Score("Player", i, 10));
+            }
+            var scores = service.readAll().get();
+            assertEquals(100, scores.size());
+            assertEquals(99, scores.get(0).getSteps());
+        }
+    }
+
+    @Test
+    void close_shouldFlushPendingScores() throws IOException {
+        var service = new ScoreService(new ScoreLog(directory));
+        var done = service.submit(new Score("Player", 12, 10));
+        service.close();
+        assertTrue(done.isDone());
+        assertEquals(1, new ScoreLog(directory).readAll().size());
+    }
+
+    @Test
+    void submit_shouldFailAfterClose() {
+        var service = new ScoreService(new ScoreLog(directory));
+        service.close();
+        var done = service.submit(new Score("Player", 12, 10));
+        assertThrows(ExecutionException.class, done::get);
+    }
+
+    @Test
+    void topScores() throws ExecutionException, InterruptedException {
+        try (var service = new ScoreService(new ScoreLog(directory))) {
+            service.submit(new Score("Alice", 20, 10));
+            service.submit(new Score("Bob", 12, 10));
+            assertEquals(12, service.topScores().get().get(0).getSteps());
+            assertEquals(20, service.topScores("Alice").get().get(0).getSteps());
+        }
+        try (var service = new ScoreService(new ScoreLog(directory))) {
+            assertEquals(2, service.topScores().get().size());
+        }
+    }
+
+    @Test
+    void topScores_shouldRebuildMissingIndex() throws IOException, ExecutionException, InterruptedException {
+        var scoreLog = new ScoreLog(directory);
+        scoreLog.append(new Score("Alice", 20, 10));
+        scoreLog.append(new Score("Bob", 12, 10));
+        try (var service = new ScoreService(scoreLog)) {
+            assertEquals(List.of(new Score("Bob", 12, 10), new Score("Alice", 20, 10)), service.topScores().get());
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+import game.model.*;
+import game.replay.Replay;
+import game.replay.ReplayVerifier;
+import game.server.SessionManager;
+import game.solver.BfsSolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionManagerTest {
+
+    Level level = LevelLoader.builtIn();
+
+    @Test
+    void finish_shouldPassOnReplayOfWonGame() {
+        List<Replay> replays = new ArrayList<>();
+        var sessions = new SessionManager(id -> id == level.getId() ? level : null, replays::add);
+        var session = sessions.start(level.getId());
+        session.move(new BfsSolver(level.getEngine()).solve(level.getStartState())[0]);
+        assertTrue(session.undo());
+        assertEquals(level.getStartState(), session.getState());
+        for (var move : new BfsSolver(level.getEngine()).solve(level.getStartState())) {
+            session.move(move);
+        }
+        assertTrue(session.isWon());
+        assertEquals(0, session.getValidMoves());
+        assertSame(session, sessions.finish(session.getId()));
+        assertEquals(0, sessions.getSessionCount());
+        assertEquals(1, replays.size());
+        var verifier = new ReplayVerifier(id -> id == level.getId() ? level : null);
+        assertEquals(ReplayVerifier.Verdict.VALID, verifier.verify(replays.get(0), session.getMoveCount()));
+    }
+
+    @Test
+    void finish_shouldDropUnfinishedGame() {
+        List<Replay> replays = new ArrayList<>();
+        var sessions = new SessionManager(id -> level, replays::add);
+        var session = sessions.start(0);
+        sessions.finish(session.getId());
+        assertTrue(replays.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> sessions.get(session.getId()));
+        assertThrows(IllegalArgumentException.class, () -> sessions.finish(session.getId()));
+    }
+
+    @Test
+    void evictIdle() {
+        var sessions = new SessionManager(id -> level);
+        var session = sessions.start(0);
+        assertEquals(0, sessions.evictIdle(Duration.ofHours(1)));
+        assertEquals(session, sessions.get(session.getId()));
+        assertEquals(1, sessions.evictIdle(Duration.ZERO));
+        assertEquals(0, sessions.getSessionCount());
+        assertThrows(IllegalArgumentException.class, () -> sessions.get(session.getId()));
+    }
+
+    @Test
+    void move_shouldRejectInvalidMove() {
+        var session = new SessionManager(id -> level).start(0);
+        int moves = session.getValidMoves();
+        int invalid = Integer.numberOfTrailingZeros(~moves);
+        assertThrows(IllegalArgumentException.class, () -> session.move(invalid));
+        assertThrows(IllegalArgumentException.class, () -> session.move(4));
+        assertEquals(level.getStartState(), session.getState());
+        assertFalse(session.undo());
+    }
+
+    @Test
+    void start_shouldHoldManySessions() {
+        var sessions = new SessionManager(id -> level);
+        assertThrows(IllegalArgumentException.class, () -> new SessionManager(id -> null).start(1));
+        for (int i = 0; i < 200_000; i++) {
+            sessions.start(0);
+        }
+        assertEquals(200_000, sessions.getSessionCount());
+    }
+
+}
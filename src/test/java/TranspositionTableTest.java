@@ -0,0 +1,108 @@
+import game.solver.TranspositionTable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    void storeProbe() {
+        var table = new TranspositionTable(1000);
+        assertEquals(1024, table.getCapacity());
+        assertEquals(TranspositionTable.MISSING, table.probe(42));
+        table.store(42, 7, -123456789L, 2, TranspositionTable.LOWER_BOUND);
+        long entry = table.probe(42);
+        assertEquals(-123456789L, TranspositionTable.value(entry));
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(2, TranspositionTable.move(entry));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+        table.store(42, 7, TranspositionTable.MAX_VALUE, TranspositionTable.NO_MOVE, TranspositionTable.EXACT);
+        entry = table.probe(42);
+        assertEquals(TranspositionTable.MAX_VALUE, TranspositionTable.value(entry));
+        assertEquals(TranspositionTable.NO_MOVE, TranspositionTable.move(entry));
+        assertEquals(TranspositionTable.MISSING, table.probe(42 + 1024));
+        table.clear();
+        assertEquals(TranspositionTable.MISSING, table.probe(42));
+    }
+
+    @Test
+    void store_shouldReplaceByDepth() {
+        var table = new TranspositionTable(16);
+        long key = 5;
+        long other = 5 + 16;
+        table.store(key, 10, 1, 0, TranspositionTable.EXACT);
+        table.store(other, 9, 2, 0, TranspositionTable.EXACT);
+        assertEquals(1, TranspositionTable.value(table.probe(key)));
+        assertEquals(TranspositionTable.MISSING, table.probe(other));
+        table.store(other, 10, 2, 0, TranspositionTable.EXACT);
+        assertEquals(2, TranspositionTable.value(table.probe(other)));
+        assertEquals(TranspositionTable.MISSING, table.probe(key));
+        table.newSearch();
+        table.store(key, 1, 3, 0, TranspositionTable.EXACT);
+        assertEquals(3, TranspositionTable.value(table.probe(key)));
+    }
+
+    @Test
+    void store_shouldKeepDeeperEntryOfSameKey() {
+        var table = new TranspositionTable(16);
+        table.store(5, 10, 1, 0, TranspositionTable.EXACT);
+        table.store(5, 9, 2, 1, TranspositionTable.LOWER_BOUND);
+        assertEquals(1, TranspositionTable.value(table.probe(5)));
+        assertEquals(10, TranspositionTable.depth(table.probe(5)));
+        table.store(5, 10, 3, 1, TranspositionTable.LOWER_BOUND);
+        assertEquals(3, TranspositionTable.value(table.probe(5)));
+        table.newSearch();
+        table.store(5, 1, 4, 0, TranspositionTable.EXACT);
+        assertEquals(4, TranspositionTable.value(table.probe(5)));
+    }
+
+    @Test
+    void store_shouldRejectValuesOutOfRange() {
+        var table = new TranspositionTable(16);
+        assertThrows(IllegalArgumentException.class, () -> table.store(1, 256, 0, 0, TranspositionTable.EXACT));
+        assertThrows(IllegalArgumentException.class,
+                () -> table.store(1, 0, TranspositionTable.MAX_VALUE + 1, 0, TranspositionTable.EXACT));
+        assertThrows(IllegalArgumentException.class, () -> table.store(1, 0, 0, 4, TranspositionTable.EXACT));
+    }
+
+    @Test
+    void probe_shouldNeverReturnMixedEntriesOfConcurrentWriters() throws InterruptedException {
+        // every writer stores the key itself as the value, so a probe hit with another value is a torn entry
+        var table = new TranspositionTable(64);
+        var threads = new Thread[4];
+        var start = new CountDownLatch(1);
+        var torn = new AtomicInteger();
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                var random = new SplittableRandom(seed);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 200_000; i++) {
+                    long key = random.nextLong(1 << 20);
+                    table.store(key, random.nextInt(256), key, random.nextInt(4), TranspositionTable.EXACT);
+                    long probed = random.nextLong(1 << 20);
+                    long entry = table.probe(probed);
+                    if (entry != TranspositionTable.MISSING && TranspositionTable.value(entry) != probed) {
+                        torn.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (var thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, torn.get());
+    }
+
+}
@@ -0,0 +1,91 @@
+import game.model.PlayerDirection;
+import game.model.Position;
+import game.model.WallIndex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WallIndexTest {
+
+    WallIndex walls;
+
+    @BeforeEach
+    void init() {
+        walls = WallIndex.builder(7)
+                .add(new Position(1, 2), new Position(1, 3))
+                .add(new Position(1, 3), new Position(0, 3))
+                .build();
+    }
+
+    @Test
+    void isBlocked() {
+        assertTrue(walls.isBlocked(new Position(1, 2), PlayerDirection.RIGHT));
+        assertTrue(walls.isBlocked(new Position(1, 3), PlayerDirection.LEFT));
+        assertTrue(walls.isBlocked(new Position(1, 3), PlayerDirection.UP));
+        assertTrue(walls.isBlocked(new Position(0, 3), PlayerDirection.DOWN));
+        assertFalse(walls.isBlocked(new Position(1, 3), PlayerDirection.RIGHT));
+        assertFalse(walls.isBlocked(new Position(1, 3), PlayerDirection.DOWN));
+        assertFalse(walls.isBlocked(new Position(0, 0), PlayerDirection.UP));
+    }
+
+    @Test
+    void isWallBetween() {
+        assertTrue(walls.isWallBetween(1 * 7 + 2, 1 * 7 + 3));
+        assertTrue(walls.isWallBetween(1 * 7 + 3, 3));
+        assertFalse(walls.isWallBetween(1 * 7 + 3, 1 * 7 + 4));
+        assertFalse(walls.isWallBetween(6, 7));
+    }
+
+    @Test
+    void getWallCount() {
+        assertEquals(2, walls.getWallCount());
+        assertEquals(0, WallIndex.empty(7).getWallCount());
+    }
+
+    @Test
+    void add_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> WallIndex.builder(7).add(new Position(1, 1), new Position(2, 2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> WallIndex.builder(7).add(new Position(6, 6), new Position(6, 7)));
+    }
+
+    @Test
+    void addByCell() {
+        assertEquals(walls, WallIndex.builder(7).addRightOf(1 * 7 + 2).addBelow(3).build());
+        assertThrows(IllegalArgumentException.class, () -> WallIndex.builder(7).addRightOf(6));
+        assertThrows(IllegalArgumentException.class, () -> WallIndex.builder(7).addBelow(6 * 7));
+    }
+
+    @Test
+    void view_shouldFollowBuilder() {
+        var builder = WallIndex.builder(7);
+        var view = builder.view();
+        var built = builder.addBelow(3).build();
+        assertTrue(view.isBlocked(3, PlayerDirection.DOWN.ordinal()));
+        builder.clear();
+        assertEquals(WallIndex.empty(7), view);
+        assertEquals(1, built.getWallCount());
+    }
+
+    @Test
+    void digest() {
+        assertArrayEquals(walls.digest(), WallIndex.builder(7).addRightOf(1 * 7 + 2).addBelow(3).build().digest());
+        assertFalse(Arrays.equals(walls.digest(), WallIndex.empty(7).digest()));
+        assertFalse(Arrays.equals(WallIndex.empty(7).digest(), WallIndex.empty(8).digest()));
+    }
+
+    @Test
+    void testEquals() {
+        assertEquals(walls, WallIndex.builder(7)
+                .add(new Position(0, 3), new Position(1, 3))
+                .add(new Position(1, 3), new Position(1, 2))
+                .build());
+        assertNotEquals(walls, WallIndex.empty(7));
+    }
+
+}
@@ -0,0 +1,50 @@
+import game.model.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristKeysTest {
+
+    @Test
+    void move_shouldMatchKeyOfNewState() {
+        var engine = LevelLoader.builtIn().getEngine();
+        var keys = ZobristKeys.of(engine.getSize());
+        for (long state = 0; state < engine.getStateCount(); state++) {
+            int moves = engine.getValidMoves(state);
+            for (int direction = 0; direction < 4; direction++) {
+                if ((moves & 1 << direction) != 0) {
+                    long next = engine.move(state, direction);
+                    assertEquals(keys.key(next), keys.move(keys.key(state), state, direction));
+                    assertEquals(keys.key(next), keys.update(keys.key(state), state, next));
+                }
+            }
+        }
+    }
+
+    @Test
+    void key_shouldBeDistinctForEveryState() {
+        var keys = ZobristKeys.of(7);
+        var seen = new HashSet<Long>();
+        for (long state = 0; state < 49 * 49; state++) {
+            assertTrue(seen.add(keys.key(state)));
+        }
+        assertSame(keys, ZobristKeys.of(7));
+    }
+
+    @Test
+    void gameModel_shouldKeepKeyUpToDate() {
+        var model = new GameModel();
+        var keys = ZobristKeys.of(model.getEngine().getSize());
+        assertEquals(keys.key(model.getState()), model.getZobristKey());
+        long start = model.getZobristKey();
+        model.move(PlayerDirection.DOWN, PlayerDirection.UP);
+        assertEquals(keys.key(model.getState()), model.getZobristKey());
+        assertNotEquals(start, model.getZobristKey());
+        model.undo();
+        assertEquals(start, model.getZobristKey());
+    }
+
+}